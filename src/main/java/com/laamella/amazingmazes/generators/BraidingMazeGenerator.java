@@ -0,0 +1,29 @@
+package com.laamella.amazingmazes.generators;
+
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.operations.Braider;
+
+/**
+ * Generates a maze with another generator, and then removes dead ends with a
+ * {@link Braider}, which makes a braid maze out of any grid maze.
+ */
+public class BraidingMazeGenerator implements GridMazeGenerator {
+    private final GridMazeGenerator generator;
+    private final Braider braider;
+
+    /**
+     * @param deadEndsToKeep the part of the dead ends that the generator made
+     * that is left alone, from 0 for a full braid maze to 1 for no change.
+     */
+    public BraidingMazeGenerator(final GridMazeGenerator generator, final Randomizer randomizer,
+                                 final double deadEndsToKeep) {
+        this.generator = generator;
+        this.braider = new Braider(randomizer, deadEndsToKeep);
+    }
+
+    @Override
+    public void generateMaze(final Grid grid) {
+        generator.generateMaze(grid);
+        braider.braid(grid);
+    }
+}
@@ -0,0 +1,124 @@
+package com.laamella.amazingmazes.generators;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.graph.Edge;
+import com.laamella.amazingmazes.mazemodel.graph.Vertex;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+
+/**
+ * Gives edges a weight for the weighted generators. The weights decide the
+ * texture of the maze: low weight edges become passages first.
+ */
+public interface EdgeWeigher {
+    float weigh(Edge edge);
+
+    /**
+     * Uniformly random weights. This gives the same texture as picking random
+     * edges.
+     */
+    class Random implements EdgeWeigher {
+        private static final int RESOLUTION = 1 << 24;
+        private final Randomizer randomizer;
+
+        public Random(final Randomizer randomizer) {
+            this.randomizer = randomizer;
+        }
+
+        @Override
+        public float weigh(final Edge edge) {
+            return randomizer.random(RESOLUTION) / (float) RESOLUTION;
+        }
+    }
+
+    /**
+     * Weights that follow a smooth noise texture over the grid, so passages
+     * form in patches. Only works on edges between squares.
+     */
+    class Noise implements EdgeWeigher {
+        private final Randomizer randomizer;
+        private final int seed;
+        private final double scale;
+
+        /**
+         * @param scale the size of the patches, in squares.
+         */
+        public Noise(final Randomizer randomizer, final double scale) {
+            this.randomizer = randomizer;
+            this.seed = randomizer.random(Integer.MAX_VALUE);
+            this.scale = scale;
+        }
+
+        @Override
+        public float weigh(final Edge edge) {
+            final Position a = positionOf(edge.getVertexA());
+            final Position b = positionOf(edge.getVertexB());
+            final double x = (a.x + b.x) / (2 * scale);
+            final double y = (a.y + b.y) / (2 * scale);
+            // A little randomness so edges in flat areas don't all tie.
+            return (float) (valueNoise(x, y) + randomizer.random(1000) / 100000.0);
+        }
+
+        private double valueNoise(final double x, final double y) {
+            final int x0 = (int) Math.floor(x);
+            final int y0 = (int) Math.floor(y);
+            final double fx = smooth(x - x0);
+            final double fy = smooth(y - y0);
+            final double top = interpolate(lattice(x0, y0), lattice(x0 + 1, y0), fx);
+            final double bottom = interpolate(lattice(x0, y0 + 1), lattice(x0 + 1, y0 + 1), fx);
+            return interpolate(top, bottom, fy);
+        }
+
+        private double lattice(final int x, final int y) {
+            int hash = seed ^ (x * 0x27d4eb2d) ^ (y * 0x165667b1);
+            hash ^= hash >>> 15;
+            hash *= 0x2c1b3c6d;
+            hash ^= hash >>> 12;
+            hash *= 0x297a2d39;
+            hash ^= hash >>> 15;
+            return (hash & 0xffffff) / (double) 0x1000000;
+        }
+
+        private static double smooth(final double t) {
+            return t * t * (3 - 2 * t);
+        }
+
+        private static double interpolate(final double a, final double b, final double t) {
+            return a + (b - a) * t;
+        }
+    }
+
+    /**
+     * Random weights, with a penalty on vertical (or, with a negative bias,
+     * horizontal) passages. A positive bias gives long horizontal corridors.
+     * Only works on edges between squares.
+     */
+    class DirectionalBias implements EdgeWeigher {
+        private final Random random;
+        private final float verticalPenalty;
+
+        /**
+         * @param horizontalBias -1..1, the preference for horizontal passages.
+         */
+        public DirectionalBias(final Randomizer randomizer, final float horizontalBias) {
+            this.random = new Random(randomizer);
+            this.verticalPenalty = horizontalBias;
+        }
+
+        @Override
+        public float weigh(final Edge edge) {
+            final boolean vertical = positionOf(edge.getVertexA()).x == positionOf(edge.getVertexB()).x;
+            final float weight = random.weigh(edge);
+            if (vertical) {
+                return weight + verticalPenalty;
+            }
+            return weight;
+        }
+    }
+
+    static Position positionOf(final Vertex vertex) {
+        if (vertex instanceof Square) {
+            return ((Square) vertex).getPosition();
+        }
+        throw new IllegalArgumentException("This weigher only works on grids, " + vertex + " is not a square.");
+    }
+}
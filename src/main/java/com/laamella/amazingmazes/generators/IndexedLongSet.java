@@ -0,0 +1,161 @@
+package com.laamella.amazingmazes.generators;
+
+import java.util.Arrays;
+
+/**
+ * A set of longs that can also hand out a random element in O(1). The elements
+ * are kept in a dense array, and an open addressing hash table maps every
+ * element to its place in that array. Removing an element moves the last
+ * element into its place.
+ */
+public class IndexedLongSet {
+    private static final int EMPTY = -1;
+
+    private long[] elements;
+    private int size;
+    private long[] tableKeys;
+    private int[] tableIndices;
+    private int mask;
+
+    public IndexedLongSet() {
+        this(16);
+    }
+
+    public IndexedLongSet(final int expectedSize) {
+        elements = new long[Math.max(4, expectedSize)];
+        int capacity = 8;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocateTable(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(final int index) {
+        return elements[index];
+    }
+
+    public boolean contains(final long element) {
+        return tableIndices[findSlot(element)] != EMPTY;
+    }
+
+    /**
+     * @return false if the element was in the set already.
+     */
+    public boolean add(final long element) {
+        final int slot = findSlot(element);
+        if (tableIndices[slot] != EMPTY) {
+            return false;
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size] = element;
+        tableKeys[slot] = element;
+        tableIndices[slot] = size;
+        size++;
+        if (size * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the element was not in the set.
+     */
+    public boolean remove(final long element) {
+        final int slot = findSlot(element);
+        final int index = tableIndices[slot];
+        if (index == EMPTY) {
+            return false;
+        }
+        deleteSlot(slot);
+        size--;
+        if (index != size) {
+            // Move the last element into the hole.
+            final long last = elements[size];
+            elements[index] = last;
+            tableIndices[findSlot(last)] = index;
+        }
+        return true;
+    }
+
+    /**
+     * @return a random element, which stays in the set.
+     */
+    public long pickRandom(final Randomizer randomizer) {
+        return elements[randomizer.random(size)];
+    }
+
+    /**
+     * @return a random element, which is removed from the set.
+     */
+    public long removeRandom(final Randomizer randomizer) {
+        final long element = pickRandom(randomizer);
+        remove(element);
+        return element;
+    }
+
+    public void clear() {
+        size = 0;
+        Arrays.fill(tableIndices, EMPTY);
+    }
+
+    private int findSlot(final long element) {
+        int slot = hash(element) & mask;
+        while (tableIndices[slot] != EMPTY && tableKeys[slot] != element) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Linear probing deletion: shift later entries of the probe sequence back,
+     * so no tombstones are needed.
+     */
+    private void deleteSlot(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (tableIndices[slot] == EMPTY) {
+                break;
+            }
+            final int home = hash(tableKeys[slot]) & mask;
+            // Move the entry back if its home is not between the hole and it.
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                tableKeys[hole] = tableKeys[slot];
+                tableIndices[hole] = tableIndices[slot];
+                hole = slot;
+            }
+        }
+        tableIndices[hole] = EMPTY;
+    }
+
+    private void rehash(final int capacity) {
+        allocateTable(capacity);
+        for (int i = 0; i < size; i++) {
+            final int slot = findSlot(elements[i]);
+            tableKeys[slot] = elements[i];
+            tableIndices[slot] = i;
+        }
+    }
+
+    private void allocateTable(final int capacity) {
+        tableKeys = new long[capacity];
+        tableIndices = new int[capacity];
+        Arrays.fill(tableIndices, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int hash(final long element) {
+        final long mixed = element * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
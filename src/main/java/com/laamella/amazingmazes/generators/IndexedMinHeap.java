@@ -0,0 +1,113 @@
+package com.laamella.amazingmazes.generators;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the integers 0..capacity-1, each with a float key. It
+ * knows where every item sits in the heap, so the key of an item can be
+ * lowered in O(log n).
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] heapPositions;
+    private final float[] keys;
+    private int size;
+
+    public IndexedMinHeap(final int capacity) {
+        heap = new int[capacity];
+        heapPositions = new int[capacity];
+        keys = new float[capacity];
+        Arrays.fill(heapPositions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(final int item) {
+        return heapPositions[item] >= 0;
+    }
+
+    public float getKey(final int item) {
+        return keys[item];
+    }
+
+    /**
+     * @param item an item that is not in the heap yet.
+     */
+    public void insert(final int item, final float key) {
+        keys[item] = key;
+        heap[size] = item;
+        heapPositions[item] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * @param key must not be larger than the current key of the item.
+     */
+    public void decreaseKey(final int item, final float key) {
+        keys[item] = key;
+        siftUp(heapPositions[item]);
+    }
+
+    /**
+     * Remove the item with the lowest key from the heap.
+     *
+     * @return the removed item.
+     */
+    public int removeMinimum() {
+        final int minimum = heap[0];
+        heapPositions[minimum] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return minimum;
+    }
+
+    private void siftUp(int position) {
+        final int item = heap[position];
+        final float key = keys[item];
+        while (position > 0) {
+            final int parentPosition = (position - 1) >>> 1;
+            final int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            heapPositions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = item;
+        heapPositions[item] = position;
+    }
+
+    private void siftDown(int position) {
+        final int item = heap[position];
+        final float key = keys[item];
+        while (true) {
+            int childPosition = position * 2 + 1;
+            if (childPosition >= size) {
+                break;
+            }
+            if (childPosition + 1 < size && keys[heap[childPosition + 1]] < keys[heap[childPosition]]) {
+                childPosition++;
+            }
+            final int child = heap[childPosition];
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[position] = child;
+            heapPositions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = item;
+        heapPositions[item] = position;
+    }
+}
@@ -0,0 +1,92 @@
+package com.laamella.amazingmazes.generators;
+
+/**
+ * A fixed capacity double ended queue of ints, kept in a ring buffer. Index 0
+ * is the oldest element at the front, index size-1 the newest at the back.
+ */
+public class IntDeque {
+    private final int[] elements;
+    private int head;
+    private int size;
+
+    public IntDeque(final int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int get(final int index) {
+        return elements[slot(index)];
+    }
+
+    public void addLast(final int element) {
+        if (size == elements.length) {
+            throw new IllegalStateException("Deque is full (" + size + " elements)");
+        }
+        elements[slot(size)] = element;
+        size++;
+    }
+
+    public void addFirst(final int element) {
+        if (size == elements.length) {
+            throw new IllegalStateException("Deque is full (" + size + " elements)");
+        }
+        head = slot(elements.length - 1);
+        elements[head] = element;
+        size++;
+    }
+
+    public int removeFirst() {
+        final int element = elements[head];
+        head = slot(1);
+        size--;
+        return element;
+    }
+
+    public int removeLast() {
+        size--;
+        return elements[slot(size)];
+    }
+
+    /**
+     * Remove an element, shifting the elements between it and the nearest end
+     * one place, so the remaining elements keep their order. This takes
+     * O(min(index, size-index)).
+     *
+     * @return the removed element.
+     */
+    public int removeAt(final int index) {
+        final int element = get(index);
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--) {
+                elements[slot(i)] = elements[slot(i - 1)];
+            }
+            removeFirst();
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[slot(i)] = elements[slot(i + 1)];
+            }
+            size--;
+        }
+        return element;
+    }
+
+    private int slot(final int index) {
+        final int slot = head + index;
+        if (slot >= elements.length) {
+            return slot - elements.length;
+        }
+        return slot;
+    }
+}
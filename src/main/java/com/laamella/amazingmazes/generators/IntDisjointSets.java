@@ -0,0 +1,80 @@
+package com.laamella.amazingmazes.generators;
+
+/**
+ * The integers 0..size-1, divided into disjoint sets. This is the "tree
+ * structure with the id at the root" that the Kruskal description mentions:
+ * finding and merging sets are both done in near constant time.
+ * <p>
+ * Compare with {@link Sets}, which holds arbitrary objects, but searches all
+ * sets on every lookup.
+ */
+public class IntDisjointSets {
+    private final int[] parents;
+    private final int[] sizes;
+    private int setCount;
+
+    /**
+     * Put every integer in a set by itself.
+     */
+    public IntDisjointSets(final int size) {
+        parents = new int[size];
+        sizes = new int[size];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+        setCount = size;
+    }
+
+    /**
+     * @return the representative of the set containing element.
+     */
+    public int find(int element) {
+        while (parents[element] != element) {
+            // Path halving: point every other node to its grandparent.
+            parents[element] = parents[parents[element]];
+            element = parents[element];
+        }
+        return element;
+    }
+
+    public boolean inSameSet(final int elementA, final int elementB) {
+        return find(elementA) == find(elementB);
+    }
+
+    /**
+     * Merge the sets containing the two elements.
+     *
+     * @return false if they were in the same set already.
+     */
+    public boolean union(final int elementA, final int elementB) {
+        int rootA = find(elementA);
+        int rootB = find(elementB);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (sizes[rootA] < sizes[rootB]) {
+            final int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parents[rootB] = rootA;
+        sizes[rootA] += sizes[rootB];
+        setCount--;
+        return true;
+    }
+
+    /**
+     * @return the amount of elements in the set containing element.
+     */
+    public int getSetSize(final int element) {
+        return sizes[find(element)];
+    }
+
+    /**
+     * @return the amount of disjoint sets.
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+}
@@ -1,5 +1,6 @@
 package com.laamella.amazingmazes.generators;
 
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
 import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
 
 /**
@@ -10,4 +11,17 @@ import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
  */
 public interface MatrixMazeGenerator extends MazeGenerator {
     void generateMaze(StateMatrix matrix);
+
+    /**
+     * Generate on a bit matrix, where a set bit is a passage. By default this
+     * goes through a StateMatrix. Generators that only need to know about
+     * passages override it to work on the bits directly; they must then still
+     * implement generateMaze(StateMatrix) without calling this method.
+     */
+    default void generateMaze(final BitMatrix passages) {
+        final StateMatrix matrix = new StateMatrix(passages.getSize());
+        passages.writePassagesTo(matrix);
+        generateMaze(matrix);
+        passages.setAll(BitMatrix.passagesOf(matrix));
+    }
 }
@@ -0,0 +1,58 @@
+package com.laamella.amazingmazes.generators;
+
+import java.util.Arrays;
+
+/**
+ * Sorts items by a primitive key in linear time, by sorting on one byte of the
+ * key at a time (least significant first.)
+ */
+public final class RadixSort {
+    private RadixSort() {
+    }
+
+    /**
+     * @param keys the key of every item.
+     * @return the items 0..keys.length-1, ordered by ascending key. Items with
+     * equal keys keep their original order.
+     */
+    public static int[] sortByKey(final float[] keys) {
+        final int[] sortableKeys = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            final int bits = Float.floatToIntBits(keys[i]);
+            // Flip all bits of negative numbers, and only the sign bit of
+            // positive numbers, so unsigned integer order matches float order.
+            sortableKeys[i] = bits ^ ((bits >> 31) | 0x80000000);
+        }
+        return sortByKey(sortableKeys);
+    }
+
+    /**
+     * @param keys the key of every item, compared as unsigned integers.
+     * @return the items 0..keys.length-1, ordered by ascending key. Items with
+     * equal keys keep their original order.
+     */
+    public static int[] sortByKey(final int[] keys) {
+        int[] items = new int[keys.length];
+        int[] sortedItems = new int[keys.length];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i;
+        }
+        final int[] counts = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (final int item : items) {
+                counts[((keys[item] >>> shift) & 0xff) + 1]++;
+            }
+            for (int i = 0; i < 256; i++) {
+                counts[i + 1] += counts[i];
+            }
+            for (final int item : items) {
+                sortedItems[counts[(keys[item] >>> shift) & 0xff]++] = item;
+            }
+            final int[] swap = items;
+            items = sortedItems;
+            sortedItems = swap;
+        }
+        return items;
+    }
+}
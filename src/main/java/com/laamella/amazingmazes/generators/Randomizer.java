@@ -27,6 +27,18 @@ public interface Randomizer {
      */
     int random(int max);
 
+    /**
+     * @return 64 random bits, each one being set with a chance of 0.5. By
+     * default this is made of four draws of 16 bits.
+     */
+    default long randomBits() {
+        long bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = bits << 16 | random(1 << 16);
+        }
+        return bits;
+    }
+
     /**
      * @return an integer between a and b, excluding a and b.
      */
@@ -51,6 +63,22 @@ public interface Randomizer {
             reset();
         }
 
+        /**
+         * Derive an independent seed for a part of a bigger job, like a row
+         * or a chunk of a maze. Parts seeded this way come out the same no
+         * matter in what order, or on how many threads, they are generated.
+         *
+         * @param seed the seed of the whole job.
+         * @param index the number of the part.
+         */
+        public static long deriveSeed(final long seed, final long index) {
+            // SplitMix64 finalizer over the combined input
+            long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
         @Override
         public boolean chance(final double d) {
             return random.nextDouble() < d;
@@ -66,6 +94,11 @@ public interface Randomizer {
             return random.nextInt(max);
         }
 
+        @Override
+        public long randomBits() {
+            return random.nextLong();
+        }
+
         @Override
         public Position randomPosition(final Size size) {
             final int x = random(size.width);
@@ -81,7 +114,7 @@ public interface Randomizer {
         @Override
         public <T> List<T> shuffle(final Collection<T> collection) {
             final List<T> list = new ArrayList<T>(collection);
-            Collections.shuffle(list);
+            Collections.shuffle(list, random);
             return list;
         }
 
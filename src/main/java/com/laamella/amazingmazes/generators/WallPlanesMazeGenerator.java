@@ -0,0 +1,15 @@
+package com.laamella.amazingmazes.generators;
+
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+/**
+ * A maze generator that writes straight into packed wall bits, for algorithms
+ * that can decide many walls at once. Wrap the result in a
+ * WallPlanesStateStorage to use it as a grid.
+ */
+public interface WallPlanesMazeGenerator extends MazeGenerator {
+    /**
+     * Generate a maze. Expects all walls to be closed.
+     */
+    void generateMaze(WallPlanes walls);
+}
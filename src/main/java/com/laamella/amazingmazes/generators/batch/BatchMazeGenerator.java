@@ -0,0 +1,95 @@
+package com.laamella.amazingmazes.generators.batch;
+
+import com.laamella.amazingmazes.generators.GridMazeGenerator;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Generates many mazes of the same size on the threads of an executor. Grids
+ * come from a {@link GridPool}, so after the first few mazes nothing big is
+ * allocated anymore.
+ * <p>
+ * Maze i is generated with a randomizer seeded with
+ * {@link Randomizer.Default#deriveSeed(long, long)} of the batch seed and i, so
+ * every maze can be generated again on its own.
+ */
+public class BatchMazeGenerator {
+    /**
+     * Makes a generator for one maze. Generators are not shared between
+     * threads. Graph generators fit too:
+     * <code>randomizer -> new PrimMazeGenerator(randomizer)::generateMaze</code>
+     */
+    public interface GeneratorFactory {
+        GridMazeGenerator create(Randomizer randomizer);
+    }
+
+    /**
+     * Receives every finished maze, on the thread that generated it. The grid
+     * goes back to the pool afterwards, so copy what you want to keep.
+     */
+    public interface MazeConsumer {
+        void accept(int index, long seed, PooledGrid maze);
+    }
+
+    private final ExecutorService executor;
+    private final GridPool gridPool;
+
+    public BatchMazeGenerator(final ExecutorService executor) {
+        this(executor, new GridPool());
+    }
+
+    public BatchMazeGenerator(final ExecutorService executor, final GridPool gridPool) {
+        this.executor = executor;
+        this.gridPool = gridPool;
+    }
+
+    /**
+     * @return the seed that maze index of the batch is generated with.
+     */
+    public static long seedOf(final long batchSeed, final int index) {
+        return Randomizer.Default.deriveSeed(batchSeed, index);
+    }
+
+    /**
+     * Generates count mazes, and returns when all of them have been handed to
+     * the consumer.
+     *
+     * @throws IllegalStateException when generating or consuming a maze failed.
+     */
+    public void generate(final Size size, final long batchSeed, final int count, final GeneratorFactory generatorFactory,
+                         final MazeConsumer consumer) throws InterruptedException {
+        final List<Future<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            tasks.add(executor.submit(() -> generateOne(size, index, seedOf(batchSeed, index), generatorFactory,
+                    consumer)));
+        }
+        for (int i = 0; i < count; i++) {
+            try {
+                tasks.get(i).get();
+            } catch (final ExecutionException e) {
+                for (final Future<?> task : tasks) {
+                    task.cancel(false);
+                }
+                throw new IllegalStateException("Maze " + i + " of the batch failed.", e.getCause());
+            }
+        }
+    }
+
+    private void generateOne(final Size size, final int index, final long seed,
+                             final GeneratorFactory generatorFactory, final MazeConsumer consumer) {
+        final PooledGrid maze = gridPool.acquire(size);
+        try {
+            generatorFactory.create(new Randomizer.Default(seed)).generateMaze(maze.getGrid());
+            consumer.accept(index, seed, maze);
+        } finally {
+            gridPool.release(maze);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.laamella.amazingmazes.generators.batch;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps grids that are not in use, by size. It can be used from many threads;
+ * it never holds more grids than were in use at the same time.
+ */
+public class GridPool {
+    private final Map<Size, Queue<PooledGrid>> freeGrids = new ConcurrentHashMap<>();
+
+    /**
+     * @return a grid that is as good as new: all walls closed, no states.
+     */
+    public PooledGrid acquire(final Size size) {
+        final PooledGrid grid = freeGrids.computeIfAbsent(size, s -> new ConcurrentLinkedQueue<>()).poll();
+        if (grid == null) {
+            return new PooledGrid(size);
+        }
+        grid.reset();
+        return grid;
+    }
+
+    /**
+     * Hands a grid back. Don't use it after this.
+     */
+    public void release(final PooledGrid grid) {
+        freeGrids.computeIfAbsent(grid.getSize(), s -> new ConcurrentLinkedQueue<>()).add(grid);
+    }
+
+    /**
+     * @return the amount of free grids of this size.
+     */
+    public int getFreeGridCount(final Size size) {
+        final Queue<PooledGrid> grids = freeGrids.get(size);
+        if (grids == null) {
+            return 0;
+        }
+        return grids.size();
+    }
+}
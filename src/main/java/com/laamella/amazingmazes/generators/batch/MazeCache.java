@@ -0,0 +1,396 @@
+package com.laamella.amazingmazes.generators.batch;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers generated mazes. A generator that is given a
+ * {@link Randomizer.Default} with the same seed draws the same maze, so a maze
+ * is known by its {@link Key}, and only has to be generated the first time it
+ * is asked for.
+ * <p>
+ * Entries are stored outside the heap, with only the bits of the walls of the
+ * grid packed one after another: first the horizontal walls row by row, then
+ * the vertical walls. A 100x100 maze takes about 2.5kB. All entries share one
+ * direct buffer of the maximum amount of bytes, allocated up front, and every
+ * entry remembers where in it its words are. When a new entry doesn't fit in
+ * the free space, the least recently used entries are dropped until it does,
+ * and their space is reused.
+ * <p>
+ * It can be used from many threads. Two threads that miss the same key at the
+ * same time will both generate the maze.
+ */
+public class MazeCache {
+    private final GridPool gridPool;
+    private final LongBuffer slab;
+    private final LinkedHashMap<Key, Slot> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The free ranges of the slab, by offset in words, to their length in
+     * words. Neighbouring free ranges are always merged.
+     */
+    private final TreeMap<Integer, Integer> freeRanges = new TreeMap<>();
+    private long usedBytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MazeCache(final long maximumBytes) {
+        this(maximumBytes, new GridPool());
+    }
+
+    /**
+     * @param maximumBytes the size of the buffer the entries are stored in, at
+     * most Integer.MAX_VALUE.
+     */
+    public MazeCache(final long maximumBytes, final GridPool gridPool) {
+        if (maximumBytes < 0 || maximumBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maximum bytes must be 0.." + Integer.MAX_VALUE + ", not "
+                    + maximumBytes);
+        }
+        this.gridPool = gridPool;
+        final int words = (int) (maximumBytes / 8);
+        this.slab = ByteBuffer.allocateDirect(words * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        if (words > 0) {
+            freeRanges.put(0, words);
+        }
+    }
+
+    /**
+     * @return the maze for key, which is generated by a generator from
+     * generatorFactory when it is not in the cache. The caller owns the
+     * returned wall planes.
+     */
+    public WallPlanes get(final Key key, final BatchMazeGenerator.GeneratorFactory generatorFactory) {
+        final WallPlanes cached = lookUp(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final PooledGrid maze = gridPool.acquire(key.size);
+        try {
+            generatorFactory.create(new Randomizer.Default(key.seed)).generateMaze(maze.getGrid());
+            store(key, maze.getWallPlanes());
+            return maze.getWallPlanes().copy();
+        } finally {
+            gridPool.release(maze);
+        }
+    }
+
+    /**
+     * @return whether the maze for key is in the cache. Doesn't count as a use.
+     */
+    public synchronized boolean contains(final Key key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Decodes while holding the lock, because the space of an entry is reused
+     * as soon as it is dropped.
+     */
+    private synchronized WallPlanes lookUp(final Key key) {
+        final Slot slot = entries.get(key);
+        return slot == null ? null : decode(slab, slot.offset, key.size);
+    }
+
+    private synchronized void store(final Key key, final WallPlanes walls) {
+        final int length = encodedWords(walls.getSize());
+        if (length > slab.capacity()) {
+            return;
+        }
+        final Slot previous = entries.remove(key);
+        if (previous != null) {
+            free(previous);
+        }
+        int offset = allocate(length);
+        final Iterator<Slot> leastRecentlyUsed = entries.values().iterator();
+        while (offset < 0) {
+            final Slot evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            free(evicted);
+            evictions.increment();
+            offset = allocate(length);
+        }
+        encode(walls, slab, offset);
+        entries.put(key, new Slot(offset, length));
+        usedBytes += length * 8L;
+    }
+
+    /**
+     * Takes the words from the first free range that is big enough.
+     *
+     * @return the offset of the words, or -1 when no free range is big
+     * enough.
+     */
+    private int allocate(final int length) {
+        for (final Map.Entry<Integer, Integer> range : freeRanges.entrySet()) {
+            final int offset = range.getKey();
+            final int free = range.getValue();
+            if (free >= length) {
+                freeRanges.remove(offset);
+                if (free > length) {
+                    freeRanges.put(offset + length, free - length);
+                }
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private void free(final Slot slot) {
+        usedBytes -= slot.length * 8L;
+        int offset = slot.offset;
+        int length = slot.length;
+        final Map.Entry<Integer, Integer> before = freeRanges.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            offset = before.getKey();
+            length += before.getValue();
+            freeRanges.remove(offset);
+        }
+        final Integer afterLength = freeRanges.remove(offset + length);
+        if (afterLength != null) {
+            length += afterLength;
+        }
+        freeRanges.put(offset, length);
+    }
+
+    /**
+     * Drops all entries. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        freeRanges.clear();
+        if (slab.capacity() > 0) {
+            freeRanges.put(0, slab.capacity());
+        }
+        usedBytes = 0;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the amount of bytes of the buffer the entries take.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits / (hits + misses), or 0 when nothing was asked yet.
+     */
+    public double getHitRatio() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return the amount of words the walls of a maze of this size are packed
+     * into.
+     */
+    static int encodedWords(final Size size) {
+        final long bits = (long) size.width * (size.height + 1) + (long) (size.width + 1) * size.height;
+        return (int) ((bits + 63) / 64);
+    }
+
+    /**
+     * Packs the walls into the buffer from offset on, without the padding
+     * WallPlanes puts at the end of every row.
+     */
+    static void encode(final WallPlanes walls, final LongBuffer buffer, final int offset) {
+        final Size size = walls.getSize();
+        final BitWriter writer = new BitWriter(buffer, offset);
+        for (int y = 0; y <= size.height; y++) {
+            for (int word = 0; word * 64 < size.width; word++) {
+                final int count = Math.min(64, size.width - word * 64);
+                writer.write(walls.getHorizontalWord(y, word), count);
+            }
+        }
+        for (int y = 0; y < size.height; y++) {
+            for (int word = 0; word * 64 < size.width + 1; word++) {
+                final int count = Math.min(64, size.width + 1 - word * 64);
+                writer.write(walls.getVerticalWord(y, word), count);
+            }
+        }
+        writer.flush();
+    }
+
+    static WallPlanes decode(final LongBuffer buffer, final int offset, final Size size) {
+        final WallPlanes walls = new WallPlanes(size);
+        final BitReader reader = new BitReader(buffer, offset);
+        for (int y = 0; y <= size.height; y++) {
+            for (int word = 0; word * 64 < size.width; word++) {
+                walls.setHorizontalWord(y, word, reader.read(Math.min(64, size.width - word * 64)));
+            }
+        }
+        for (int y = 0; y < size.height; y++) {
+            for (int word = 0; word * 64 < size.width + 1; word++) {
+                walls.setVerticalWord(y, word, reader.read(Math.min(64, size.width + 1 - word * 64)));
+            }
+        }
+        return walls;
+    }
+
+    private static long lowBits(final long bits, final int count) {
+        return count == 64 ? bits : bits & ((1L << count) - 1);
+    }
+
+    /**
+     * Appends bits to a buffer, using absolute puts so the buffer position is
+     * left alone.
+     */
+    private static class BitWriter {
+        private final LongBuffer buffer;
+        private int index;
+        private long current = 0;
+        private int filled = 0;
+
+        BitWriter(final LongBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.index = offset;
+        }
+
+        void write(final long bits, final int count) {
+            final long value = lowBits(bits, count);
+            current |= value << filled;
+            if (filled + count >= 64) {
+                buffer.put(index++, current);
+                current = filled == 0 ? 0 : value >>> (64 - filled);
+                filled = filled + count - 64;
+            } else {
+                filled += count;
+            }
+        }
+
+        void flush() {
+            if (filled > 0) {
+                buffer.put(index++, current);
+            }
+        }
+    }
+
+    /**
+     * Reads bits back from a buffer, using absolute gets so the buffer
+     * position is left alone.
+     */
+    private static class BitReader {
+        private final LongBuffer buffer;
+        private int index;
+        private long current = 0;
+        private int used = 64;
+
+        BitReader(final LongBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.index = offset;
+        }
+
+        long read(final int count) {
+            if (used == 64) {
+                current = buffer.get(index++);
+                used = 0;
+            }
+            long result = current >>> used;
+            final int available = 64 - used;
+            if (count > available) {
+                current = buffer.get(index++);
+                result |= current << available;
+                used = count - available;
+            } else {
+                used += count;
+            }
+            return lowBits(result, count);
+        }
+    }
+
+    /**
+     * Where the words of an entry are in the slab.
+     */
+    private static final class Slot {
+        private final int offset;
+        private final int length;
+
+        Slot(final int offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * What makes a maze: the generator, its settings, the size and the seed.
+     */
+    public static final class Key {
+        private final String generatorId;
+        private final String parameters;
+        private final Size size;
+        private final long seed;
+
+        /**
+         * @param generatorId anything that names the generator, like its class
+         * name.
+         * @param parameters the settings of the generator that change the maze,
+         * as text, or "" when there are none.
+         */
+        public Key(final String generatorId, final String parameters, final Size size, final long seed) {
+            this.generatorId = generatorId;
+            this.parameters = parameters;
+            this.size = size;
+            this.seed = seed;
+        }
+
+        public Size getSize() {
+            return size;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return other.seed == seed && other.size.equals(size) && other.generatorId.equals(generatorId)
+                    && other.parameters.equals(parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = generatorId.hashCode();
+            hash = hash * 31 + parameters.hashCode();
+            hash = hash * 31 + size.hashCode();
+            return hash * 31 + Long.hashCode(seed);
+        }
+
+        @Override
+        public String toString() {
+            return generatorId + "(" + parameters + ") " + size + " #" + seed;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.laamella.amazingmazes.generators.batch;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.GridWithDecoupledState;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanesStateStorage;
+
+/**
+ * A grid that is built once and then reset for every maze drawn on it. Its
+ * walls are kept in {@link WallPlanes}, so resetting mostly means clearing
+ * arrays.
+ */
+public class PooledGrid {
+    private final WallPlanesStateStorage storage;
+    private final GridWithDecoupledState grid;
+
+    public PooledGrid(final Size size) {
+        storage = new WallPlanesStateStorage(new WallPlanes(size));
+        grid = new GridWithDecoupledState(storage);
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public WallPlanes getWallPlanes() {
+        return storage.getWallPlanes();
+    }
+
+    public Size getSize() {
+        return grid.getSize();
+    }
+
+    /**
+     * Closes all walls and removes all states, except for POSSIBLE_EXIT on the
+     * border, like a new grid.
+     */
+    public void reset() {
+        storage.reset();
+        grid.markPossibleExits();
+    }
+}
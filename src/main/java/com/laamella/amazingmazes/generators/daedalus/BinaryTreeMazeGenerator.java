@@ -2,7 +2,6 @@ package com.laamella.amazingmazes.generators.daedalus;
 
 import com.laamella.amazingmazes.generators.GridMazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
-import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
 import com.laamella.amazingmazes.mazemodel.grid.Square;
 import org.slf4j.Logger;
@@ -50,9 +49,9 @@ public class BinaryTreeMazeGenerator implements GridMazeGenerator {
         log.debug("generateMaze");
         final Grid.UtilityWrapper grid = new Grid.UtilityWrapper(plainGrid);
 
-        grid.forAllSquares((position, square) -> {
-            if (grid.isBorderSquare(LEFT, position)) {
-                if (grid.isBorderSquare(UP, position)) {
+        grid.forAllSquares((x, y, square) -> {
+            if (x == 0) {
+                if (y == 0) {
                     square.getWall(LEFT).open();
                 } else {
                     // Open the whole left column vertically
@@ -60,7 +59,7 @@ public class BinaryTreeMazeGenerator implements GridMazeGenerator {
                 }
                 return null;
             }
-            if (grid.isBorderSquare(UP, position)) {
+            if (y == 0) {
                 // Open the whole top row horizontally
                 square.getWall(LEFT).open();
                 return null;
@@ -74,7 +73,7 @@ public class BinaryTreeMazeGenerator implements GridMazeGenerator {
             return null;
         });
 
-        final Square exit = grid.getSquare(new Position(grid.getSize().width - 1, grid.getSize().height - 1));
+        final Square exit = grid.getSquare(grid.getSize().width - 1, grid.getSize().height - 1);
         exit.getWall(RIGHT).open();
         exit.setState(EXIT, true);
 
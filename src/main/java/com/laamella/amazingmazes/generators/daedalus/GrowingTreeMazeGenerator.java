@@ -1,16 +1,13 @@
 package com.laamella.amazingmazes.generators.daedalus;
 
 import com.laamella.amazingmazes.generators.GraphMazeGenerator;
+import com.laamella.amazingmazes.generators.IntDeque;
 import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
-import com.laamella.amazingmazes.mazemodel.graph.Edge;
 import com.laamella.amazingmazes.mazemodel.graph.Graph;
-import com.laamella.amazingmazes.mazemodel.graph.Vertex;
-
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
 
 /**
  * This is a general algorithm, capable of creating Mazes of different textures.
@@ -32,61 +29,176 @@ import java.util.Set;
  * a short direct solution. If you randomly pick among the most recent cells,
  * the Maze will have a low "river" factor but a long windy solution.
  * <p>
+ * How to pick is decided by a {@link Selector}. The list holds vertex ids in a
+ * deque, so taking cells from either end is O(1). Taking a cell from the middle
+ * shifts the cells between it and the nearest end, so the list stays ordered
+ * from oldest to newest.
+ * <p>
+ * Carved cells are marked VISITED_WHILE_GENERATING.
+ * <p>
  * <a href="http://www.astrolog.org/labyrnth/algrithm.htm">Source of the
  * description</a>
  */
-public class GrowingTreeMazeGenerator implements GraphMazeGenerator {
+public class GrowingTreeMazeGenerator implements GraphMazeGenerator, Instrumented {
     private final Randomizer randomizer;
+    private final Selector selector;
+    private Instrumentation instrumentation = Instrumentation.NONE;
 
+    /**
+     * Creates a generator that picks cells at random.
+     */
     public GrowingTreeMazeGenerator(final Randomizer randomizer) {
+        this(randomizer, new Selector.Random());
+    }
+
+    public GrowingTreeMazeGenerator(final Randomizer randomizer, final Selector selector) {
         this.randomizer = randomizer;
+        this.selector = selector;
+    }
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
     }
 
     @Override
     public void generateMaze(final Graph graph) {
-        final List<Vertex> vertexList = new ArrayList<>();
-        putAStartVertexInTheList(graph, vertexList);
+        final long indexStartTime = instrumentation.phaseStarted("index");
+        final GraphIndex index = new GraphIndex(graph);
+        instrumentation.phaseEnded("index", indexStartTime);
+        if (index.getVertexCount() == 0) {
+            return;
+        }
+        final long startTime = instrumentation.phaseStarted("generate");
+        final boolean[] visited = new boolean[index.getVertexCount()];
+        final int[] possibleEdges = new int[index.getMaximumDegree()];
+        final IntDeque vertexList = new IntDeque(index.getVertexCount());
+
+        final int startVertex = randomizer.random(index.getVertexCount());
+        vertexList.addLast(startVertex);
+        visited[startVertex] = true;
+        index.getVertex(startVertex).setState(VISITED_WHILE_GENERATING, true);
+        instrumentation.cellsVisited(1);
         do {
-            final Vertex randomVertex = pickAVertexFromTheList(vertexList, randomizer);
-            final Edge edge = pickEdgeToUnvisitedVertex(randomVertex);
-            if (edge == null) {
-                vertexList.remove(randomVertex);
+            final int listIndex = selector.select(vertexList.size(), randomizer);
+            final int vertex = vertexList.get(listIndex);
+            final int edge = pickEdgeToUnvisitedVertex(index, vertex, visited, possibleEdges);
+            if (edge < 0) {
+                vertexList.removeAt(listIndex);
             } else {
-                edge.setState(MazeDefinitionState.PASSAGE, true);
-                final Vertex destinationVertex = edge.travel(randomVertex);
-                destinationVertex.setState(VISITED_WHILE_GENERATING, true);
-                vertexList.add(destinationVertex);
+                index.getEdge(edge).setState(MazeDefinitionState.PASSAGE, true);
+                final int destinationVertex = index.travel(edge, vertex);
+                visited[destinationVertex] = true;
+                index.getVertex(destinationVertex).setState(VISITED_WHILE_GENERATING, true);
+                vertexList.addLast(destinationVertex);
+                instrumentation.cellsVisited(1);
+                instrumentation.wallsOpened(1);
+                instrumentation.frontierSize(vertexList.size());
             }
         } while (vertexList.size() > 0);
+        instrumentation.phaseEnded("generate", startTime);
     }
 
-    private void putAStartVertexInTheList(final Graph graph, final List<Vertex> vertexList) {
-        final Vertex startVertex = randomizer.pickOne(graph.getVertices());
-        vertexList.add(startVertex);
-        startVertex.setState(VISITED_WHILE_GENERATING, true);
-    }
-
-    private Edge pickEdgeToUnvisitedVertex(final Vertex randomVertex) {
-        final Set<Edge> possibleEdges = new HashSet<>();
-        for (final Edge edge : randomVertex.getEdges()) {
-            final Vertex destinationVertex = edge.travel(randomVertex);
-            if (!destinationVertex.hasState(VISITED_WHILE_GENERATING)) {
-                possibleEdges.add(edge);
+    /**
+     * @param possibleEdges scratch space, large enough to hold all edges of a
+     * vertex.
+     * @return a random edge to an unvisited vertex, or -1 if there is none.
+     */
+    private int pickEdgeToUnvisitedVertex(final GraphIndex index, final int vertex, final boolean[] visited,
+                                          final int[] possibleEdges) {
+        int amountOfPossibleEdges = 0;
+        for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+            final int edge = index.getAdjacentEdge(i);
+            if (!visited[index.travel(edge, vertex)]) {
+                possibleEdges[amountOfPossibleEdges++] = edge;
             }
         }
-        return randomizer.pickOne(possibleEdges);
+        if (amountOfPossibleEdges == 0) {
+            return -1;
+        }
+        return possibleEdges[randomizer.random(amountOfPossibleEdges)];
     }
 
     /**
-     * You can override this to implement the behaviour as mentioned in the
-     * documentation above. The default implementation picks any element.
-     *
-     * @param vertexList pick a vertex from this list.
-     * @param randomizer useful for randomizing your pick.
-     * @return a vertex from the list.
+     * Decides which cell to continue from. Implement this for textures other
+     * than the built in ones.
      */
-    protected Vertex pickAVertexFromTheList(final List<Vertex> vertexList, final Randomizer randomizer) {
-        return randomizer.pickOne(vertexList);
-    }
+    public interface Selector {
+        /**
+         * @param size the amount of cells in the list, at least 1.
+         * @param randomizer useful for randomizing your pick.
+         * @return an index in the list, where 0 is the oldest cell and size-1
+         * the newest.
+         */
+        int select(int size, Randomizer randomizer);
 
+        /**
+         * Always the newest cell, which turns this into the recursive
+         * backtracker.
+         */
+        class Newest implements Selector {
+            @Override
+            public int select(final int size, final Randomizer randomizer) {
+                return size - 1;
+            }
+        }
+
+        /**
+         * Always the oldest cell, for a very low "river" factor.
+         */
+        class Oldest implements Selector {
+            @Override
+            public int select(final int size, final Randomizer randomizer) {
+                return 0;
+            }
+        }
+
+        /**
+         * Any cell, which behaves similar to Prim's algorithm.
+         */
+        class Random implements Selector {
+            @Override
+            public int select(final int size, final Randomizer randomizer) {
+                return randomizer.random(size);
+            }
+        }
+
+        /**
+         * The cell in the middle of the list.
+         */
+        class Middle implements Selector {
+            @Override
+            public int select(final int size, final Randomizer randomizer) {
+                return size / 2;
+            }
+        }
+
+        /**
+         * Usually asks one selector, and sometimes another. For example,
+         * newest 75% of the time and random otherwise gives a high "river"
+         * factor but a short direct solution.
+         */
+        class Mix implements Selector {
+            private final Selector usualSelector;
+            private final double usualChance;
+            private final Selector otherSelector;
+
+            /**
+             * @param usualChance 0..1, the chance that usualSelector is asked.
+             */
+            public Mix(final Selector usualSelector, final double usualChance, final Selector otherSelector) {
+                this.usualSelector = usualSelector;
+                this.usualChance = usualChance;
+                this.otherSelector = otherSelector;
+            }
+
+            @Override
+            public int select(final int size, final Randomizer randomizer) {
+                if (randomizer.chance(usualChance)) {
+                    return usualSelector.select(size, randomizer);
+                }
+                return otherSelector.select(size, randomizer);
+            }
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link WordParallelBinaryTreeMazeGenerator} with the rows spread over the
+ * threads of a fork/join pool. Every row draws from its own random series,
+ * derived from the seed and the row number, so the maze only depends on the
+ * seed, not on the amount of threads.
+ */
+public class ParallelBinaryTreeMazeGenerator implements WallPlanesMazeGenerator {
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    public ParallelBinaryTreeMazeGenerator(final long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBinaryTreeMazeGenerator(final long seed, final ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        pool.invoke(new ParallelRows(walls, seed, WordParallelBinaryTreeMazeGenerator::carveRow, 0,
+                walls.getSize().height));
+        walls.setVerticalWallOpen(walls.getSize().width, walls.getSize().height - 1, true);
+    }
+}
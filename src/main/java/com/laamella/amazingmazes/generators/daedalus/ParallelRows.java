@@ -0,0 +1,53 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Carves a range of rows, splitting it in halves until the pieces are small
+ * enough to carve on one thread. Every row gets its own randomizer, seeded from
+ * the seed of the whole maze and the row number.
+ */
+class ParallelRows extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int SQUARES_PER_TASK = 1 << 16;
+
+    interface RowCarver {
+        void carveRow(WallPlanes walls, int y, Randomizer randomizer);
+    }
+
+    private final WallPlanes walls;
+    private final long seed;
+    private final RowCarver rowCarver;
+    private final int firstRow;
+    private final int endRow;
+
+    ParallelRows(final WallPlanes walls, final long seed, final RowCarver rowCarver, final int firstRow,
+                 final int endRow) {
+        this.walls = walls;
+        this.seed = seed;
+        this.rowCarver = rowCarver;
+        this.firstRow = firstRow;
+        this.endRow = endRow;
+    }
+
+    static Randomizer rowRandomizer(final long seed, final int y) {
+        return new Randomizer.Default(Randomizer.Default.deriveSeed(seed, y));
+    }
+
+    @Override
+    protected void compute() {
+        final int rowsPerTask = Math.max(1, SQUARES_PER_TASK / Math.max(1, walls.getSize().width));
+        if (endRow - firstRow <= rowsPerTask) {
+            for (int y = firstRow; y < endRow; y++) {
+                rowCarver.carveRow(walls, y, rowRandomizer(seed, y));
+            }
+            return;
+        }
+        final int middleRow = (firstRow + endRow) >>> 1;
+        invokeAll(new ParallelRows(walls, seed, rowCarver, firstRow, middleRow),
+                new ParallelRows(walls, seed, rowCarver, middleRow, endRow));
+    }
+}
@@ -0,0 +1,33 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link WordParallelSideWinderMazeGenerator} with the rows spread over the
+ * threads of a fork/join pool. Every row draws from its own random series,
+ * derived from the seed and the row number, so the maze only depends on the
+ * seed, not on the amount of threads.
+ */
+public class ParallelSideWinderMazeGenerator implements WallPlanesMazeGenerator {
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    public ParallelSideWinderMazeGenerator(final long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSideWinderMazeGenerator(final long seed, final ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        WordParallelSideWinderMazeGenerator.generateFirstRow(walls, ParallelRows.rowRandomizer(seed, 0));
+        pool.invoke(new ParallelRows(walls, seed, WordParallelSideWinderMazeGenerator::carveRow, 1,
+                walls.getSize().height));
+    }
+}
@@ -2,6 +2,8 @@ package com.laamella.amazingmazes.generators.daedalus;
 
 import com.laamella.amazingmazes.generators.GraphMazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
 import com.laamella.amazingmazes.mazemodel.graph.Edge;
 import com.laamella.amazingmazes.mazemodel.graph.Graph;
 import com.laamella.amazingmazes.mazemodel.graph.Vertex;
@@ -39,18 +41,25 @@ import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
  * description</a>
  */
 // TODO there's a variant that puts the edges on the frontier
-public class PrimMazeGenerator implements GraphMazeGenerator {
+public class PrimMazeGenerator implements GraphMazeGenerator, Instrumented {
     private static Logger log = LoggerFactory.getLogger(PrimMazeGenerator.class);
 
     private final Randomizer randomizer;
+    private Instrumentation instrumentation = Instrumentation.NONE;
 
     public PrimMazeGenerator(final Randomizer randomizer) {
         this.randomizer = randomizer;
     }
 
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
     @Override
     public void generateMaze(final Graph graph) {
         log.debug("generateMaze");
+        final long startTime = instrumentation.phaseStarted("generate");
 
         final Set<Vertex> in = new HashSet<>();
         final Set<Vertex> frontier = new HashSet<>();
@@ -59,16 +68,19 @@ public class PrimMazeGenerator implements GraphMazeGenerator {
         final Vertex startVertex = randomizer.pickOne(out);
         in.add(startVertex);
         out.remove(startVertex);
+        instrumentation.cellsVisited(1);
 
         makeFrontier(startVertex, frontier, out);
 
         while (frontier.size() > 0) {
-            log.debug("in: " + in.size() + ", frontier: " + frontier.size() + ", out: " + out.size());
+            instrumentation.frontierSize(frontier.size());
             final Vertex currentFrontierVertex = randomizer.pickOne(frontier);
             for (final Edge edge : currentFrontierVertex.getEdges()) {
                 final Vertex possibleInVertex = edge.travel(currentFrontierVertex);
                 if (in.contains(possibleInVertex)) {
                     edge.setState(PASSAGE, true);
+                    instrumentation.wallsOpened(1);
+                    instrumentation.cellsVisited(1);
                     in.add(currentFrontierVertex);
                     frontier.remove(currentFrontierVertex);
                     makeFrontier(currentFrontierVertex, frontier, out);
@@ -76,6 +88,7 @@ public class PrimMazeGenerator implements GraphMazeGenerator {
                 }
             }
         }
+        instrumentation.phaseEnded("generate", startTime);
     }
 
     private void makeFrontier(final Vertex vertex, final Set<Vertex> frontier, final Set<Vertex> out) {
@@ -0,0 +1,48 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.EdgeWeigher;
+import com.laamella.amazingmazes.generators.GraphMazeGenerator;
+import com.laamella.amazingmazes.generators.IntDisjointSets;
+import com.laamella.amazingmazes.generators.RadixSort;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
+/**
+ * Kruskal's algorithm as it is meant to be: instead of picking random edges
+ * like {@link KruskalMazeGenerator}, take the edges in order of their weight,
+ * lowest first. The weights come from an {@link EdgeWeigher}, which
+ * determines the texture of the maze.
+ * <p>
+ * The edges are radix sorted, and the cells are labeled with a disjoint set
+ * forest, so this runs in O(E α(V)).
+ */
+public class WeightedKruskalMazeGenerator implements GraphMazeGenerator {
+    private final EdgeWeigher edgeWeigher;
+
+    public WeightedKruskalMazeGenerator(final EdgeWeigher edgeWeigher) {
+        this.edgeWeigher = edgeWeigher;
+    }
+
+    @Override
+    public void generateMaze(final Graph graph) {
+        final GraphIndex index = new GraphIndex(graph);
+        final float[] weights = new float[index.getEdgeCount()];
+        for (int edge = 0; edge < weights.length; edge++) {
+            weights[edge] = edgeWeigher.weigh(index.getEdge(edge));
+        }
+
+        final IntDisjointSets sets = new IntDisjointSets(index.getVertexCount());
+        for (final int edge : RadixSort.sortByKey(weights)) {
+            // If the vertices are in different sets, we can connect them.
+            if (sets.union(index.getVertexA(edge), index.getVertexB(edge))) {
+                index.getEdge(edge).setState(PASSAGE, true);
+                // Stop when all vertices are in the same set
+                if (sets.getSetCount() == 1) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.EdgeWeigher;
+import com.laamella.amazingmazes.generators.GraphMazeGenerator;
+import com.laamella.amazingmazes.generators.IndexedMinHeap;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
+/**
+ * Prim's algorithm as it is meant to be: instead of picking a random
+ * "frontier" cell like {@link PrimMazeGenerator}, always carve into the
+ * frontier cell that can be reached by the lowest weight edge. The weights
+ * come from an {@link EdgeWeigher}, which determines the texture of the maze.
+ * <p>
+ * Every frontier cell is kept in a heap, keyed on the lowest weight edge that
+ * connects it to an "in" cell, so this runs in O(E log V).
+ */
+public class WeightedPrimMazeGenerator implements GraphMazeGenerator, Instrumented {
+    private static Logger log = LoggerFactory.getLogger(WeightedPrimMazeGenerator.class);
+
+    private final Randomizer randomizer;
+    private final EdgeWeigher edgeWeigher;
+    private Instrumentation instrumentation = Instrumentation.NONE;
+
+    public WeightedPrimMazeGenerator(final Randomizer randomizer, final EdgeWeigher edgeWeigher) {
+        this.randomizer = randomizer;
+        this.edgeWeigher = edgeWeigher;
+    }
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void generateMaze(final Graph graph) {
+        log.debug("generateMaze");
+        final long indexStartTime = instrumentation.phaseStarted("index");
+        final GraphIndex index = new GraphIndex(graph);
+        instrumentation.phaseEnded("index", indexStartTime);
+        final int vertexCount = index.getVertexCount();
+        if (vertexCount == 0) {
+            return;
+        }
+        final long weighStartTime = instrumentation.phaseStarted("weigh");
+        final float[] weights = new float[index.getEdgeCount()];
+        for (int edge = 0; edge < weights.length; edge++) {
+            weights[edge] = edgeWeigher.weigh(index.getEdge(edge));
+        }
+        instrumentation.phaseEnded("weigh", weighStartTime);
+
+        final boolean[] in = new boolean[vertexCount];
+        final int[] cheapestEdge = new int[vertexCount];
+        Arrays.fill(cheapestEdge, -1);
+        final IndexedMinHeap frontier = new IndexedMinHeap(vertexCount);
+
+        final long startTime = instrumentation.phaseStarted("generate");
+        frontier.insert(randomizer.random(vertexCount), 0);
+        while (!frontier.isEmpty()) {
+            instrumentation.frontierSize(frontier.size());
+            final int vertex = frontier.removeMinimum();
+            in[vertex] = true;
+            instrumentation.cellsVisited(1);
+            if (cheapestEdge[vertex] >= 0) {
+                index.getEdge(cheapestEdge[vertex]).setState(PASSAGE, true);
+                instrumentation.wallsOpened(1);
+            }
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                final int edge = index.getAdjacentEdge(i);
+                final int neighbour = index.travel(edge, vertex);
+                if (in[neighbour]) {
+                    continue;
+                }
+                if (!frontier.contains(neighbour)) {
+                    cheapestEdge[neighbour] = edge;
+                    frontier.insert(neighbour, weights[edge]);
+                } else if (weights[edge] < frontier.getKey(neighbour)) {
+                    cheapestEdge[neighbour] = edge;
+                    frontier.decreaseKey(neighbour, weights[edge]);
+                }
+            }
+        }
+        instrumentation.phaseEnded("generate", startTime);
+    }
+}
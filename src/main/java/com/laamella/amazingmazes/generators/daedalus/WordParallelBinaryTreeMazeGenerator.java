@@ -0,0 +1,57 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+/**
+ * The same maze as {@link BinaryTreeMazeGenerator}, but generated 64 squares
+ * at a time. Since every square flips an independent coin, one random long
+ * decides a whole word of squares: a set bit opens the wall to the left, a
+ * cleared bit opens the wall above.
+ * <p>
+ * Unlike BinaryTreeMazeGenerator, this doesn't mark the bottom right square
+ * with EXIT: WallPlanes only store walls. The wall of the exit is opened.
+ */
+public class WordParallelBinaryTreeMazeGenerator implements WallPlanesMazeGenerator {
+    private final Randomizer randomizer;
+
+    public WordParallelBinaryTreeMazeGenerator(final Randomizer randomizer) {
+        this.randomizer = randomizer;
+    }
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        for (int y = 0; y < walls.getSize().height; y++) {
+            carveRow(walls, y, randomizer);
+        }
+        // The exit is on the right of the bottom right square.
+        walls.setVerticalWallOpen(walls.getSize().width, walls.getSize().height - 1, true);
+    }
+
+    /**
+     * Carve one row. Rows don't depend on each other, so they may be carved in
+     * any order, even at the same time.
+     */
+    static void carveRow(final WallPlanes walls, final int y, final Randomizer randomizer) {
+        for (int word = 0; word < walls.getWordsPerRow(); word++) {
+            final long squares = walls.getSquareMask(word);
+            if (y == 0) {
+                // Open the whole top row horizontally, including the entrance
+                // at the left.
+                walls.openVerticalWalls(y, word, squares);
+                continue;
+            }
+            final long coins = randomizer.randomBits();
+            long left = coins & squares;
+            long up = ~coins & squares;
+            if (word == 0) {
+                // Open the whole left column vertically
+                left &= ~1L;
+                up |= 1L;
+            }
+            walls.openVerticalWalls(y, word, left);
+            walls.openHorizontalWalls(y, word, up);
+        }
+    }
+}
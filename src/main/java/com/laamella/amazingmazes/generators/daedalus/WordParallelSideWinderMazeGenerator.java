@@ -0,0 +1,73 @@
+package com.laamella.amazingmazes.generators.daedalus;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+/**
+ * The same maze as {@link SideWinderMazeGenerator}, but generated 64 squares
+ * at a time. One random long decides for a word of squares whether they carve
+ * to the right, and those decisions are written as a word of walls. Only the
+ * passages leading up are chosen one at a time, once for every run of squares.
+ * <p>
+ * Unlike SideWinderMazeGenerator, this doesn't mark the square below the
+ * entrance with ENTRANCE: WallPlanes only store walls. The wall of the
+ * entrance is opened.
+ */
+public class WordParallelSideWinderMazeGenerator implements WallPlanesMazeGenerator {
+    private final Randomizer randomizer;
+
+    public WordParallelSideWinderMazeGenerator(final Randomizer randomizer) {
+        this.randomizer = randomizer;
+    }
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        generateFirstRow(walls, randomizer);
+        for (int y = 1; y < walls.getSize().height; y++) {
+            carveRow(walls, y, randomizer);
+        }
+    }
+
+    /**
+     * The top row is one long passage, with the entrance somewhere above it.
+     */
+    static void generateFirstRow(final WallPlanes walls, final Randomizer randomizer) {
+        final int width = walls.getSize().width;
+        for (int word = 0; word < walls.getWordsPerRow(); word++) {
+            // The walls right of all squares, except the last one.
+            walls.openVerticalWalls(0, word, WallPlanes.rangeMask(word, 1, width));
+        }
+        walls.setHorizontalWallOpen(randomizer.random(width), 0, true);
+    }
+
+    /**
+     * Carve one row below the top row. Rows don't depend on each other, so
+     * they may be carved in any order, even at the same time.
+     */
+    static void carveRow(final WallPlanes walls, final int y, final Randomizer randomizer) {
+        final int width = walls.getSize().width;
+        int runStart = 0;
+        long carry = 0;
+        for (int word = 0; word < walls.getWordsPerRow(); word++) {
+            final long squares = walls.getSquareMask(word);
+            // The last square has no square to its right to carve into.
+            final long canCarveRight = squares & ~WallPlanes.rangeMask(word, width - 1, width);
+            final long carveRight = randomizer.randomBits() & canCarveRight;
+
+            // The wall right of square x is the vertical wall x+1.
+            walls.openVerticalWalls(y, word, (carveRight << 1) | carry);
+            carry = carveRight >>> 63;
+
+            // Every square that doesn't carve right ends a run, which gets one
+            // passage up from a random square in it.
+            long runEnds = squares & ~carveRight;
+            while (runEnds != 0) {
+                final int x = word * 64 + Long.numberOfTrailingZeros(runEnds);
+                walls.setHorizontalWallOpen(runStart + randomizer.random(x - runStart + 1), y, true);
+                runStart = x + 1;
+                runEnds &= runEnds - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.laamella.amazingmazes.generators.labyrinth;
+
+import com.laamella.amazingmazes.mazemodel.Turtle;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+/**
+ * The turtle commands of a program, recorded by {@link GridLogoProgramCompiler}
+ * as a stream of bytes. A byte with the high bit clear walks 1..127 squares, a
+ * byte with the high bit set turns right a number of quarters (1..3) given by
+ * its low two bits.
+ * <p>
+ * It can be run on a turtle like any program, but drawing it straight onto a
+ * grid is cheaper, and drawing it onto wall bits is much cheaper.
+ */
+public class CompiledGridLogoProgram implements GridLogoProgram {
+    static final int TURN = 0x80;
+    static final int MAXIMUM_WALK = 0x7f;
+
+    private static final Direction[] CLOCKWISE = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final GridLogoProgram sourceProgram;
+    private final byte[] commands;
+
+    CompiledGridLogoProgram(final GridLogoProgram sourceProgram, final byte[] commands) {
+        this.sourceProgram = sourceProgram;
+        this.commands = commands;
+    }
+
+    /**
+     * @return the size of the command stream in bytes.
+     */
+    public int getLength() {
+        return commands.length;
+    }
+
+    @Override
+    public void run(final Turtle turtle) {
+        for (final byte command : commands) {
+            if ((command & TURN) != 0) {
+                for (int i = 0; i < (command & 3); i++) {
+                    turtle.right();
+                }
+            } else {
+                for (int i = 0; i < command; i++) {
+                    turtle.walk();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Square getStartSquare(final Grid.UtilityWrapper grid) {
+        return sourceProgram.getStartSquare(grid);
+    }
+
+    /**
+     * Opens the walls along the path, starting on square x,y looking in the
+     * direction.
+     * <p>
+     * This still asks the grid for every wall it passes, one call per step.
+     * The walls a straight walk passes lie next to each other across the
+     * walk, not in a line, so the bulk wall calls of the grid don't help.
+     * Only {@link #draw(WallPlanes, int, int, Direction)} works without a
+     * virtual call per step.
+     */
+    public void draw(final Grid grid, int x, int y, final Direction direction) {
+        int heading = clockwiseIndex(direction);
+        for (final byte command : commands) {
+            if ((command & TURN) != 0) {
+                heading = (heading + (command & 3)) & 3;
+                continue;
+            }
+            for (int i = 0; i < command; i++) {
+                switch (heading) {
+                    case 0:
+                        grid.getWall(x, y, true).open();
+                        break;
+                    case 1:
+                        grid.getWall(x + 1, y, false).open();
+                        break;
+                    case 2:
+                        grid.getWall(x, y + 1, true).open();
+                        break;
+                    default:
+                        grid.getWall(x, y, false).open();
+                        break;
+                }
+                x += DX[heading];
+                y += DY[heading];
+            }
+        }
+    }
+
+    /**
+     * Opens the walls along the path, starting on square x,y looking in the
+     * direction.
+     */
+    public void draw(final WallPlanes walls, int x, int y, final Direction direction) {
+        int heading = clockwiseIndex(direction);
+        for (final byte command : commands) {
+            if ((command & TURN) != 0) {
+                heading = (heading + (command & 3)) & 3;
+                continue;
+            }
+            for (int i = 0; i < command; i++) {
+                switch (heading) {
+                    case 0:
+                        walls.setHorizontalWallOpen(x, y, true);
+                        break;
+                    case 1:
+                        walls.setVerticalWallOpen(x + 1, y, true);
+                        break;
+                    case 2:
+                        walls.setHorizontalWallOpen(x, y + 1, true);
+                        break;
+                    default:
+                        walls.setVerticalWallOpen(x, y, true);
+                        break;
+                }
+                x += DX[heading];
+                y += DY[heading];
+            }
+        }
+    }
+
+    static int clockwiseIndex(final Direction direction) {
+        for (int i = 0; i < CLOCKWISE.length; i++) {
+            if (CLOCKWISE[i] == direction) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a direction: " + direction);
+    }
+}
@@ -0,0 +1,125 @@
+package com.laamella.amazingmazes.generators.labyrinth;
+
+import com.laamella.amazingmazes.mazemodel.Turtle;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.laamella.amazingmazes.generators.labyrinth.CompiledGridLogoProgram.MAXIMUM_WALK;
+import static com.laamella.amazingmazes.generators.labyrinth.CompiledGridLogoProgram.TURN;
+
+/**
+ * Runs a program once on a recording turtle, and keeps the result. Programs
+ * are cached by equality, so programs that implement equals on their
+ * parameters (like the curve degree) are only compiled once per compiler.
+ * Programs that don't override equals, like lambdas and anonymous classes, are
+ * compiled every time and not cached, since every instance would get its own
+ * entry. The cache is not bounded otherwise: it keeps one entry per different
+ * program until it is cleared.
+ */
+public class GridLogoProgramCompiler {
+    private final Map<GridLogoProgram, CompiledGridLogoProgram> cache = new ConcurrentHashMap<>();
+
+    public CompiledGridLogoProgram compile(final GridLogoProgram program) {
+        if (program instanceof CompiledGridLogoProgram) {
+            return (CompiledGridLogoProgram) program;
+        }
+        if (!overridesEquals(program)) {
+            return record(program);
+        }
+        return cache.computeIfAbsent(program, GridLogoProgramCompiler::record);
+    }
+
+    private static CompiledGridLogoProgram record(final GridLogoProgram program) {
+        final RecordingTurtle turtle = new RecordingTurtle();
+        program.run(turtle);
+        return new CompiledGridLogoProgram(program, turtle.finish());
+    }
+
+    private static boolean overridesEquals(final GridLogoProgram program) {
+        try {
+            return program.getClass().getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Writes walks and turns, adding up consecutive walks and consecutive
+     * turns.
+     */
+    private static class RecordingTurtle implements Turtle {
+        private final ByteArrayOutputStream commands = new ByteArrayOutputStream();
+        private int pendingWalk = 0;
+        private int pendingQuarters = 0;
+        // Same start angle as the turtle of GridLogoProgramRunnerMazeGenerator.
+        private int angle = 90;
+
+        @Override
+        public void left() {
+            turn(3);
+        }
+
+        @Override
+        public void right() {
+            turn(1);
+        }
+
+        private void turn(final int quarters) {
+            flushWalk();
+            pendingQuarters = (pendingQuarters + quarters) & 3;
+            angle = (angle + quarters * 90) % 360;
+        }
+
+        @Override
+        public void walk() {
+            flushTurn();
+            pendingWalk++;
+            if (pendingWalk == MAXIMUM_WALK) {
+                flushWalk();
+            }
+        }
+
+        @Override
+        public int getAngle() {
+            return angle;
+        }
+
+        @Override
+        public void setAngle(final int newAngle) {
+            if (newAngle % 90 != 0 || newAngle < 0 || newAngle >= 360) {
+                throw new IllegalArgumentException();
+            }
+            turn(((newAngle - angle + 360) / 90) & 3);
+        }
+
+        private void flushWalk() {
+            if (pendingWalk > 0) {
+                commands.write(pendingWalk);
+                pendingWalk = 0;
+            }
+        }
+
+        private void flushTurn() {
+            if (pendingQuarters != 0) {
+                commands.write(TURN | pendingQuarters);
+                pendingQuarters = 0;
+            }
+        }
+
+        byte[] finish() {
+            flushWalk();
+            flushTurn();
+            return commands.toByteArray();
+        }
+    }
+}
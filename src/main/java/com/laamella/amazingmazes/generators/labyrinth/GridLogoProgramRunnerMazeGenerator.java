@@ -2,6 +2,7 @@ package com.laamella.amazingmazes.generators.labyrinth;
 
 import com.laamella.amazingmazes.generators.GridMazeGenerator;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
+import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.Turtle;
 import com.laamella.amazingmazes.mazemodel.grid.Direction;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
@@ -29,6 +30,11 @@ public class GridLogoProgramRunnerMazeGenerator implements GridMazeGenerator {
         final Grid.UtilityWrapper grid = new Grid.UtilityWrapper(plainGrid);
         final Square startSquare = program.getStartSquare(grid);
         startSquare.setState(MazeDefinitionState.ENTRANCE, true);
+        if (program instanceof CompiledGridLogoProgram) {
+            final Position start = startSquare.getPosition();
+            ((CompiledGridLogoProgram) program).draw(plainGrid, start.x, start.y, Direction.RIGHT);
+            return;
+        }
         final Turtle turtle = new GridTurtle(startSquare, Direction.RIGHT);
         program.run(turtle);
     }
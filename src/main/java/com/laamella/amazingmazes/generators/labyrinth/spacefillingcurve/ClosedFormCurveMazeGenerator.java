@@ -0,0 +1,132 @@
+package com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve;
+
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws a space filling curve without a turtle. Subclasses give the position
+ * of every square along the curve, and the wall between two neighbouring
+ * squares is opened when their positions follow each other. Since that only
+ * needs the squares themselves, bands of rows are carved on the threads of a
+ * fork/join pool, every band writing only its own rows of wall bits.
+ * <p>
+ * The curve is drawn on the largest square of the right size that fits in
+ * the top left of the maze. No entrance or exit is made.
+ */
+public abstract class ClosedFormCurveMazeGenerator implements WallPlanesMazeGenerator {
+    private static final int SQUARES_PER_TASK = 1 << 16;
+
+    private final boolean mirror;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param mirror swap x and y, so the curve is mirrored in the diagonal.
+     */
+    protected ClosedFormCurveMazeGenerator(final boolean mirror, final ForkJoinPool pool) {
+        this.mirror = mirror;
+        this.pool = pool;
+    }
+
+    /**
+     * @return the side of the largest curve that fits in the size, or 0 if none
+     * fits.
+     */
+    protected abstract int getSide(Size size);
+
+    /**
+     * @return the position of square x,y along a curve with this side, from 0
+     * to side*side-1.
+     */
+    protected abstract long getIndex(int x, int y, int side);
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        final int side = getSide(walls.getSize());
+        if (side > 0) {
+            pool.invoke(new Bands(walls, side, 0, side));
+        }
+    }
+
+    private void carveRows(final WallPlanes walls, final int side, final int firstRow, final int endRow) {
+        long[] row = new long[side];
+        long[] nextRow = new long[side];
+        fillRow(row, firstRow, side);
+        for (int y = firstRow; y < endRow; y++) {
+            for (int x = 0; x < side - 1; x++) {
+                if (follow(row[x], row[x + 1])) {
+                    walls.setVerticalWallOpen(x + 1, y, true);
+                }
+            }
+            if (y + 1 < side) {
+                fillRow(nextRow, y + 1, side);
+                for (int x = 0; x < side; x++) {
+                    if (follow(row[x], nextRow[x])) {
+                        walls.setHorizontalWallOpen(x, y + 1, true);
+                    }
+                }
+                final long[] swap = row;
+                row = nextRow;
+                nextRow = swap;
+            }
+        }
+    }
+
+    private void fillRow(final long[] row, final int y, final int side) {
+        for (int x = 0; x < side; x++) {
+            row[x] = mirror ? getIndex(y, x, side) : getIndex(x, y, side);
+        }
+    }
+
+    private static boolean follow(final long a, final long b) {
+        return a - b == 1 || b - a == 1;
+    }
+
+    /**
+     * @return the largest power of base that is at most max, or 0 if max < 1.
+     */
+    static int largestPowerAtMost(final int base, final int max) {
+        if (max < 1) {
+            return 0;
+        }
+        int power = 1;
+        while (power <= max / base) {
+            power *= base;
+        }
+        return power;
+    }
+
+    /**
+     * Band y owns the vertical walls of its rows, and the horizontal walls
+     * below them, so no two bands write the same word.
+     */
+    private class Bands extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final WallPlanes walls;
+        private final int side;
+        private final int firstRow;
+        private final int endRow;
+
+        Bands(final WallPlanes walls, final int side, final int firstRow, final int endRow) {
+            this.walls = walls;
+            this.side = side;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected void compute() {
+            final int rowsPerTask = Math.max(1, SQUARES_PER_TASK / side);
+            if (endRow - firstRow <= rowsPerTask) {
+                carveRows(walls, side, firstRow, endRow);
+                return;
+            }
+            final int middleRow = (firstRow + endRow) >>> 1;
+            invokeAll(new Bands(walls, side, firstRow, middleRow), new Bands(walls, side, middleRow, endRow));
+        }
+    }
+}
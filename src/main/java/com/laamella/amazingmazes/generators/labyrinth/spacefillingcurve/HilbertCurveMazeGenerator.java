@@ -0,0 +1,54 @@
+package com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Hilbert curve of {@link HilbertCurveProgram}, computed from the square
+ * coordinates instead of walked by a turtle. The curve starts in the top left
+ * corner and ends in the top right corner of a square with a side that is a
+ * power of two.
+ * <p>
+ * Wikipedia has <a href="http://en.wikipedia.org/wiki/Hilbert_curve">the
+ * conversion from coordinates to curve positions</a> used here.
+ */
+public class HilbertCurveMazeGenerator extends ClosedFormCurveMazeGenerator {
+    public HilbertCurveMazeGenerator(final boolean mirror) {
+        this(mirror, ForkJoinPool.commonPool());
+    }
+
+    public HilbertCurveMazeGenerator(final boolean mirror, final ForkJoinPool pool) {
+        super(mirror, pool);
+    }
+
+    @Override
+    protected int getSide(final Size size) {
+        return largestPowerAtMost(2, Math.min(size.width, size.height));
+    }
+
+    @Override
+    protected long getIndex(final int x, final int y, final int side) {
+        return hilbertIndex(x, y, side);
+    }
+
+    static long hilbertIndex(int x, int y, final int side) {
+        long index = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            final int rx = (x & s) > 0 ? 1 : 0;
+            final int ry = (y & s) > 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so the sub-curve starts at 0,0.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                final int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return index;
+    }
+}
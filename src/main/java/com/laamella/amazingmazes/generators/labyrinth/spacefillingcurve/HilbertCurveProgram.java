@@ -79,7 +79,9 @@ public class HilbertCurveProgram implements GridLogoProgram {
         if (degree == 0) {
             return;
         }
-        log.debug("draw(" + turtle + ", " + degree + ", " + rightTurning + ")");
+        if (log.isDebugEnabled()) {
+            log.debug("draw(" + turtle + ", " + degree + ", " + rightTurning + ")");
+        }
 
         right(turtle, rightTurning);
         drawCurve(turtle, degree - 1, !rightTurning);
@@ -104,4 +106,17 @@ public class HilbertCurveProgram implements GridLogoProgram {
         return grid.getTopLeftSquare();
     }
 
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof HilbertCurveProgram) {
+            return ((HilbertCurveProgram) obj).degree == degree && ((HilbertCurveProgram) obj).mirror == mirror;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return degree * 2 + (mirror ? 1 : 0);
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Moore curve: four Hilbert curves joined into a loop. It visits the
+ * quadrants top left, bottom left, bottom right, top right, and ends next to
+ * where it started. That last step is left closed, so the maze stays a tree.
+ * <p>
+ * http://en.wikipedia.org/wiki/Moore_curve
+ */
+public class MooreCurveMazeGenerator extends ClosedFormCurveMazeGenerator {
+    public MooreCurveMazeGenerator(final boolean mirror) {
+        this(mirror, ForkJoinPool.commonPool());
+    }
+
+    public MooreCurveMazeGenerator(final boolean mirror, final ForkJoinPool pool) {
+        super(mirror, pool);
+    }
+
+    @Override
+    protected int getSide(final Size size) {
+        return largestPowerAtMost(2, Math.min(size.width, size.height));
+    }
+
+    @Override
+    protected long getIndex(final int x, final int y, final int side) {
+        final int half = side / 2;
+        if (half == 0) {
+            return 0;
+        }
+        final int localX = x % half;
+        final int localY = y % half;
+        final long quadrantArea = (long) half * half;
+        if (x < half) {
+            if (y < half) {
+                return HilbertCurveMazeGenerator.hilbertIndex(half - 1 - localX, half - 1 - localY, half);
+            }
+            return quadrantArea + HilbertCurveMazeGenerator.hilbertIndex(localX, localY, half);
+        }
+        if (y >= half) {
+            return 2 * quadrantArea + HilbertCurveMazeGenerator.hilbertIndex(localX, localY, half);
+        }
+        return 3 * quadrantArea + HilbertCurveMazeGenerator.hilbertIndex(half - 1 - localX, half - 1 - localY, half);
+    }
+}
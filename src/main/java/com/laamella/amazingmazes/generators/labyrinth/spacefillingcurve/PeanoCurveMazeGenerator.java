@@ -0,0 +1,53 @@
+package com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A Peano curve, computed from the square coordinates instead of walked by a
+ * turtle like {@link PeanoCurveProgram}. The curve runs from the top left to
+ * the bottom right corner of a square with a side that is a power of three.
+ * <p>
+ * The position along the curve follows from Peano's own definition: its
+ * ternary digits alternate between the digits of x and y, each one flipped
+ * (d becomes 2-d) when the digits taken from the other coordinate so far add
+ * up to an odd number.
+ * <p>
+ * http://www.cut-the-knot.org/Curriculum/Geometry/PeanoComplete.shtml
+ */
+public class PeanoCurveMazeGenerator extends ClosedFormCurveMazeGenerator {
+    public PeanoCurveMazeGenerator(final boolean mirror) {
+        this(mirror, ForkJoinPool.commonPool());
+    }
+
+    public PeanoCurveMazeGenerator(final boolean mirror, final ForkJoinPool pool) {
+        super(mirror, pool);
+    }
+
+    @Override
+    protected int getSide(final Size size) {
+        return largestPowerAtMost(3, Math.min(size.width, size.height));
+    }
+
+    @Override
+    protected long getIndex(final int x, final int y, final int side) {
+        long index = 0;
+        int xDigitSum = 0;
+        int yDigitSum = 0;
+        for (int s = side / 3; s > 0; s /= 3) {
+            int xDigit = (x / s) % 3;
+            if ((yDigitSum & 1) == 1) {
+                xDigit = 2 - xDigit;
+            }
+            xDigitSum += xDigit;
+            int yDigit = (y / s) % 3;
+            if ((xDigitSum & 1) == 1) {
+                yDigit = 2 - yDigit;
+            }
+            yDigitSum += yDigit;
+            index = index * 9 + xDigit * 3 + yDigit;
+        }
+        return index;
+    }
+}
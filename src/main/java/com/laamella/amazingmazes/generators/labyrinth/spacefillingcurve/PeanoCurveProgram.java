@@ -56,7 +56,9 @@ public class PeanoCurveProgram implements GridLogoProgram {
         if (degree == 0) {
             return;
         }
-        log.debug("draw(" + turtle + ", " + degree + ", " + rightTurning + ")");
+        if (log.isDebugEnabled()) {
+            log.debug("draw(" + turtle + ", " + degree + ", " + rightTurning + ")");
+        }
         drawCurve(turtle, degree - 1, rightTurning);
         turtle.walk();
         drawCurve(turtle, degree - 1, !rightTurning);
@@ -89,4 +91,17 @@ public class PeanoCurveProgram implements GridLogoProgram {
     public Square getStartSquare(final UtilityWrapper grid) {
         return grid.getTopLeftSquare();
     }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof PeanoCurveProgram) {
+            return ((PeanoCurveProgram) obj).degree == degree && ((PeanoCurveProgram) obj).mirror == mirror;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return degree * 2 + (mirror ? 1 : 0);
+    }
 }
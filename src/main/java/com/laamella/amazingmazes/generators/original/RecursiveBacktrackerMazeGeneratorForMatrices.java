@@ -3,14 +3,13 @@ package com.laamella.amazingmazes.generators.original;
 import com.laamella.amazingmazes.generators.MatrixMazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
+import com.laamella.amazingmazes.mazemodel.PackedPosition;
 import com.laamella.amazingmazes.mazemodel.Position;
-import com.laamella.amazingmazes.mazemodel.State.ObservableObjectSetState;
 import com.laamella.amazingmazes.mazemodel.grid.Direction;
-import com.laamella.amazingmazes.mazemodel.matrix.Matrix;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
 import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
 
-import java.util.EnumSet;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * A recursive backtracker that works directly on matrixes. It's not perfect,
@@ -20,8 +19,12 @@ import java.util.Set;
  * <li>Does not set an exit
  * <li>Does not require an entrance
  * </ul>
+ * The recursion is done on an explicit stack of packed positions, so large
+ * matrices don't overflow the call stack.
  */
 public class RecursiveBacktrackerMazeGeneratorForMatrices implements MatrixMazeGenerator {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     private final Randomizer randomizer;
 
     public RecursiveBacktrackerMazeGeneratorForMatrices(final Randomizer randomizer) {
@@ -30,35 +33,95 @@ public class RecursiveBacktrackerMazeGeneratorForMatrices implements MatrixMazeG
 
     @Override
     public void generateMaze(final StateMatrix matrix) {
-        final Matrix.UtilityWrapper<ObservableObjectSetState> utilityMatrix = new Matrix.UtilityWrapper<>(matrix);
-        final Position startPosition = randomizer.randomPosition(utilityMatrix.getSize());
-        recurse(matrix, startPosition);
+        generateMaze(BitMatrix.passagesOf(matrix), matrix);
+    }
+
+    @Override
+    public void generateMaze(final BitMatrix matrix) {
+        generateMaze(matrix, null);
     }
 
-    private void recurse(final StateMatrix matrix, final Position currentPosition) {
-        matrix.get(currentPosition).setState(MazeDefinitionState.PASSAGE, true);
+    /**
+     * Works on the bits, and also marks every new passage in the state matrix
+     * right away, if there is one, so its observers can follow along.
+     */
+    private void generateMaze(final BitMatrix matrix, final StateMatrix states) {
+        final Position startPosition = randomizer.randomPosition(matrix.getSize());
 
-        final Set<Direction> directionsToTry = EnumSet.allOf(Direction.class);
-        for (final Direction direction : randomizer.shuffle(directionsToTry)) {
-            final Position newPosition = currentPosition.move(direction.getMove());
-            if (newPosition.isInside(matrix.getSize())) {
-                if (notNextToAnotherPassage(matrix, newPosition)) {
-                    recurse(matrix, newPosition);
+        // Every stack frame is a position, the order in which to try the
+        // directions from there, and how many of them have been tried.
+        long[] positions = new long[64];
+        int[] directionOrders = new int[64];
+        int[] triedDirections = new int[64];
+        int depth = 0;
+
+        carve(matrix, states, startPosition.x, startPosition.y);
+        positions[0] = PackedPosition.pack(startPosition);
+        directionOrders[0] = randomDirectionOrder();
+        depth++;
+
+        while (depth > 0) {
+            final int frame = depth - 1;
+            if (triedDirections[frame] == DIRECTIONS.length) {
+                depth--;
+                continue;
+            }
+            final int direction = (directionOrders[frame] >> (2 * triedDirections[frame]++)) & 3;
+            final Position move = DIRECTIONS[direction].getMove();
+            final int x = PackedPosition.x(positions[frame]) + move.x;
+            final int y = PackedPosition.y(positions[frame]) + move.y;
+            if (isInside(matrix, x, y) && notNextToAnotherPassage(matrix, x, y)) {
+                carve(matrix, states, x, y);
+                if (depth == positions.length) {
+                    positions = Arrays.copyOf(positions, depth * 2);
+                    directionOrders = Arrays.copyOf(directionOrders, depth * 2);
+                    triedDirections = Arrays.copyOf(triedDirections, depth * 2);
                 }
+                positions[depth] = PackedPosition.pack(x, y);
+                directionOrders[depth] = randomDirectionOrder();
+                triedDirections[depth] = 0;
+                depth++;
             }
         }
     }
 
-    private boolean notNextToAnotherPassage(final StateMatrix matrix, final Position position) {
+    /**
+     * @return a random permutation of the four direction indices, two bits
+     * each.
+     */
+    private int randomDirectionOrder() {
+        final int[] order = {0, 1, 2, 3};
+        for (int i = order.length - 1; i > 0; i--) {
+            final int j = randomizer.random(i + 1);
+            final int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order[0] | order[1] << 2 | order[2] << 4 | order[3] << 6;
+    }
+
+    private static boolean isInside(final BitMatrix matrix, final int x, final int y) {
+        return x >= 0 && y >= 0 && x < matrix.getSize().width && y < matrix.getSize().height;
+    }
+
+    private boolean notNextToAnotherPassage(final BitMatrix matrix, final int x, final int y) {
         int amountOfSurroundingPassages = 0;
-        for (final Direction direction : EnumSet.allOf(Direction.class)) {
-            final Position newPosition = position.move(direction.getMove());
-            if (newPosition.isInside(matrix.getSize())) {
-                if (matrix.get(newPosition).hasState(MazeDefinitionState.PASSAGE)) {
+        for (final Direction direction : DIRECTIONS) {
+            final int neighbourX = x + direction.getMove().x;
+            final int neighbourY = y + direction.getMove().y;
+            if (isInside(matrix, neighbourX, neighbourY)) {
+                if (matrix.getBit(neighbourX, neighbourY)) {
                     amountOfSurroundingPassages++;
                 }
             }
         }
         return amountOfSurroundingPassages <= 1;
     }
+
+    private static void carve(final BitMatrix matrix, final StateMatrix states, final int x, final int y) {
+        matrix.set(x, y, true);
+        if (states != null) {
+            states.get(x, y).setState(MazeDefinitionState.PASSAGE, true);
+        }
+    }
 }
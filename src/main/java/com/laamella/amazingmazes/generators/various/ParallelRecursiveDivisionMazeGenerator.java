@@ -0,0 +1,319 @@
+package com.laamella.amazingmazes.generators.various;
+
+import com.laamella.amazingmazes.generators.GridMazeGenerator;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.WallPlanesMazeGenerator;
+import com.laamella.amazingmazes.generators.various.RecursiveDivisionMazeGenerator.Division;
+import com.laamella.amazingmazes.mazemodel.PackedPosition;
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.GridStateStorage;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.GridWithDecoupledState;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanesStateStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Observable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Does what {@link RecursiveDivisionMazeGenerator} does, dividing chambers at
+ * the same time on a fork/join pool.
+ * <p>
+ * Every chamber draws from its own random series, derived from the seed and
+ * the chamber coordinates, so the maze only depends on the seed, not on the
+ * amount of threads. Chambers smaller than the cutoff area are worked out
+ * completely by the task that finds them.
+ * <p>
+ * On {@link WallPlanes}, and grids stored in them, every task draws its own
+ * chamber. A chamber only writes walls inside itself, so tasks never write
+ * the same bit, but the words at the ends of its rows can be shared with a
+ * neighbour. Those are changed under a lock for the row, the words inside
+ * the chamber are written directly. Observers are notified when the maze is
+ * done.
+ * <p>
+ * Other grids can't take concurrent writes, so there the threads of the pool
+ * only choose where the walls and holes go, a level at a time, and the thread
+ * that calls generateMaze draws them. Chambers below the cutoff are then
+ * worked out on that thread too. Observers are notified once per level.
+ */
+public class ParallelRecursiveDivisionMazeGenerator extends Observable
+        implements GridMazeGenerator, WallPlanesMazeGenerator {
+    /**
+     * How many chambers of a level one task chooses the divisions for.
+     */
+    private static final int CHAMBERS_PER_TASK = 16;
+
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final int sequentialCutoffArea;
+
+    /**
+     * @param sequentialCutoffArea chambers with at most this many squares are
+     * not split up over threads anymore.
+     */
+    public ParallelRecursiveDivisionMazeGenerator(final long seed, final ForkJoinPool pool,
+                                                  final int sequentialCutoffArea) {
+        this.seed = seed;
+        this.pool = pool;
+        this.sequentialCutoffArea = sequentialCutoffArea;
+    }
+
+    @Override
+    public void generateMaze(final Grid plainGrid) {
+        if (plainGrid instanceof GridWithDecoupledState) {
+            final GridStateStorage storage = ((GridWithDecoupledState) plainGrid).getStateStorage();
+            if (storage instanceof WallPlanesStateStorage) {
+                generateMaze(((WallPlanesStateStorage) storage).getWallPlanes());
+                return;
+            }
+        }
+        final Grid.UtilityWrapper grid = new Grid.UtilityWrapper(plainGrid);
+        RecursiveDivisionMazeGenerator.drawOuterWalls(grid);
+        setChanged();
+        notifyObservers();
+        List<Chamber> chambers = Collections.singletonList(new Chamber(grid.getTopLeftSquare().getPosition(),
+                grid.getBottomRightSquare().getPosition().move(1, 1)));
+        while (!chambers.isEmpty()) {
+            final Division[] divisions = new Division[chambers.size()];
+            pool.invoke(new DivideLevel(seed, chambers, divisions, 0, divisions.length));
+            final List<Chamber> nextChambers = new ArrayList<>();
+            for (final Division division : divisions) {
+                if (division == null) {
+                    continue;
+                }
+                division.apply(grid);
+                for (final Chamber child : children(division)) {
+                    if (child.area() <= sequentialCutoffArea) {
+                        finish(grid, child);
+                    } else {
+                        nextChambers.add(child);
+                    }
+                }
+            }
+            setChanged();
+            notifyObservers();
+            chambers = nextChambers;
+        }
+    }
+
+    private void finish(final Grid.UtilityWrapper grid, final Chamber chamber) {
+        final Division division = chamber.divide(seed);
+        if (division == null) {
+            return;
+        }
+        division.apply(grid);
+        for (final Chamber child : children(division)) {
+            finish(grid, child);
+        }
+    }
+
+    @Override
+    public void generateMaze(final WallPlanes walls) {
+        final Size size = walls.getSize();
+        walls.setAllWallsOpen(true);
+        walls.setHorizontalWallsOpen(0, 0, size.width - 1, false);
+        walls.setHorizontalWallsOpen(size.height, 0, size.width - 1, false);
+        walls.setVerticalWallsOpen(0, 0, size.height - 1, false);
+        walls.setVerticalWallsOpen(size.width, 0, size.height - 1, false);
+        pool.invoke(new DrawChamber(seed, sequentialCutoffArea, new SharedWallPlanes(walls),
+                new Chamber(new Position(0, 0), new Position(size.width, size.height))));
+        setChanged();
+        notifyObservers();
+    }
+
+    private static List<Chamber> children(final Division division) {
+        final Position topLeft = division.topLeft;
+        final Position bottomRight = division.bottomRight;
+        final Position crossing = division.crossing;
+        final List<Chamber> children = new ArrayList<>(4);
+        children.add(new Chamber(topLeft, crossing));
+        children.add(new Chamber(crossing, bottomRight));
+        children.add(new Chamber(new Position(crossing.x, topLeft.y), new Position(bottomRight.x, crossing.y)));
+        children.add(new Chamber(new Position(topLeft.x, crossing.y), new Position(crossing.x, bottomRight.y)));
+        return children;
+    }
+
+    private static class Chamber {
+        final Position topLeft;
+        final Position bottomRight;
+
+        Chamber(final Position topLeft, final Position bottomRight) {
+            this.topLeft = topLeft;
+            this.bottomRight = bottomRight;
+        }
+
+        int area() {
+            return (bottomRight.x - topLeft.x) * (bottomRight.y - topLeft.y);
+        }
+
+        Division divide(final long seed) {
+            final long corners = Randomizer.Default.deriveSeed(seed, PackedPosition.pack(topLeft));
+            return Division.choose(topLeft, bottomRight,
+                    new Randomizer.Default(Randomizer.Default.deriveSeed(corners, PackedPosition.pack(bottomRight))));
+        }
+    }
+
+    /**
+     * Chooses the divisions for a range of the chambers of one level.
+     */
+    private static class DivideLevel extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final List<Chamber> chambers;
+        private final Division[] divisions;
+        private final int from;
+        private final int to;
+
+        DivideLevel(final long seed, final List<Chamber> chambers, final Division[] divisions, final int from,
+                    final int to) {
+            this.seed = seed;
+            this.chambers = chambers;
+            this.divisions = divisions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHAMBERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    divisions[i] = chambers.get(i).divide(seed);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new DivideLevel(seed, chambers, divisions, from, middle),
+                    new DivideLevel(seed, chambers, divisions, middle, to));
+        }
+    }
+
+    /**
+     * Divides and draws a chamber, and then its children, which are drawn by
+     * tasks of their own while they are bigger than the cutoff area.
+     */
+    private static class DrawChamber extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int sequentialCutoffArea;
+        private final SharedWallPlanes walls;
+        private final Chamber chamber;
+
+        DrawChamber(final long seed, final int sequentialCutoffArea, final SharedWallPlanes walls,
+                    final Chamber chamber) {
+            this.seed = seed;
+            this.sequentialCutoffArea = sequentialCutoffArea;
+            this.walls = walls;
+            this.chamber = chamber;
+        }
+
+        @Override
+        protected void compute() {
+            if (chamber.area() <= sequentialCutoffArea) {
+                finish(chamber);
+                return;
+            }
+            final Division division = chamber.divide(seed);
+            if (division == null) {
+                return;
+            }
+            walls.draw(division);
+            final List<DrawChamber> tasks = new ArrayList<>(4);
+            for (final Chamber child : children(division)) {
+                tasks.add(new DrawChamber(seed, sequentialCutoffArea, walls, child));
+            }
+            invokeAll(tasks);
+        }
+
+        private void finish(final Chamber chamber) {
+            final Division division = chamber.divide(seed);
+            if (division == null) {
+                return;
+            }
+            walls.draw(division);
+            for (final Chamber child : children(division)) {
+                finish(child);
+            }
+        }
+    }
+
+    /**
+     * Wall planes that chambers which don't overlap can draw into at the same
+     * time. A word that lies completely inside the chamber that is drawn
+     * belongs to that chamber alone, any other word is changed while holding
+     * the lock for its row.
+     */
+    private static class SharedWallPlanes {
+        private static final int ROW_LOCKS = 64;
+
+        private final WallPlanes walls;
+        private final Object[] rowLocks = new Object[ROW_LOCKS];
+
+        SharedWallPlanes(final WallPlanes walls) {
+            this.walls = walls;
+            for (int i = 0; i < ROW_LOCKS; i++) {
+                rowLocks[i] = new Object();
+            }
+        }
+
+        /**
+         * Draw the two walls of the division, and make the holes in them.
+         */
+        void draw(final Division division) {
+            final int left = division.topLeft.x;
+            final int right = division.bottomRight.x;
+            final Position crossing = division.crossing;
+            final int crossingWord = crossing.x >>> 6;
+            final long crossingBit = 1L << crossing.x;
+            for (int y = division.topLeft.y; y < division.bottomRight.y; y++) {
+                setBits(false, y, crossingWord, crossingBit, false, left, right);
+            }
+            for (int word = left >>> 6; word <= (right - 1) >>> 6; word++) {
+                setBits(true, crossing.y, word, WallPlanes.rangeMask(word, left, right), false, left, right);
+            }
+            for (int wall = 0; wall < 4; wall++) {
+                if (wall == division.wallToIgnore) {
+                    continue;
+                }
+                if (wall < 2) {
+                    setBits(false, division.holes[wall], crossingWord, crossingBit, true, left, right);
+                } else {
+                    final int x = division.holes[wall];
+                    setBits(true, crossing.y, x >>> 6, 1L << x, true, left, right);
+                }
+            }
+        }
+
+        /**
+         * Open or close the mask bits of a word of a chamber that spans the
+         * columns left..right-1.
+         */
+        private void setBits(final boolean horizontal, final int y, final int word, final long mask,
+                             final boolean open, final int left, final int right) {
+            if (word * 64 >= left && word * 64 + 64 <= right) {
+                changeWord(horizontal, y, word, mask, open);
+                return;
+            }
+            synchronized (rowLocks[y & (ROW_LOCKS - 1)]) {
+                changeWord(horizontal, y, word, mask, open);
+            }
+        }
+
+        private void changeWord(final boolean horizontal, final int y, final int word, final long mask,
+                                final boolean open) {
+            if (horizontal) {
+                final long bits = walls.getHorizontalWord(y, word);
+                walls.setHorizontalWord(y, word, open ? bits | mask : bits & ~mask);
+            } else {
+                final long bits = walls.getVerticalWord(y, word);
+                walls.setVerticalWord(y, word, open ? bits | mask : bits & ~mask);
+            }
+        }
+    }
+}
@@ -22,6 +22,9 @@ import java.util.Observable;
  * <p>
  * Source: <a
  * href="http://en.wikipedia.org/wiki/Maze_generation_algorithm">Wikipedia</a>
+ * <p>
+ * {@link ParallelRecursiveDivisionMazeGenerator} divides the chambers on
+ * several threads.
  */
 // TODO code is very ugly, create better code.
 // TODO maybe the ability to create subgrids is useful?
@@ -37,61 +40,109 @@ public class RecursiveDivisionMazeGenerator extends Observable implements GridMa
     @Override
     public void generateMaze(final Grid plainGrid) {
         final Grid.UtilityWrapper grid = new Grid.UtilityWrapper(plainGrid);
+        drawOuterWalls(grid);
+        setChanged();
+        notifyObservers();
+        subdivide(grid, grid.getTopLeftSquare().getPosition(), grid.getBottomRightSquare().getPosition().move(1, 1));
+    }
+
+    /**
+     * Opens all walls inside the grid and closes the ones around it, which
+     * makes the whole grid one chamber.
+     */
+    static void drawOuterWalls(final Grid.UtilityWrapper grid) {
         grid.openAllWalls();
         grid.drawHorizontalWall(0, 0, grid.getSize().width - 1);
         grid.drawHorizontalWall(grid.getSize().height, 0, grid.getSize().width - 1);
         grid.drawVerticalWall(0, 0, grid.getSize().height - 1);
         grid.drawVerticalWall(grid.getSize().width, 0, grid.getSize().height - 1);
-        setChanged();
-        notifyObservers();
-        subdivide(grid, grid.getTopLeftSquare().getPosition(), grid.getBottomRightSquare().getPosition().move(1, 1));
     }
 
     private void subdivide(final Grid.UtilityWrapper grid, final Position topLeft, final Position bottomRight) {
-        log.debug("Subdividing [" + topLeft + "]-[" + bottomRight + "]");
-        if (bottomRight.x - topLeft.x < 2 || bottomRight.y - topLeft.y < 2) {
-            // Too little space to subdivide
+        final Division division = Division.choose(topLeft, bottomRight, randomizer);
+        if (division == null) {
             return;
         }
-        final Position crossing = new Position(randomizer.between(topLeft.x, bottomRight.x - 1) + 1,
-                randomizer.between(topLeft.y, bottomRight.y - 1) + 1);
-
-        grid.drawVerticalWall(crossing.x, topLeft.y, bottomRight.y - 1);
-        grid.drawHorizontalWall(crossing.y, topLeft.x, bottomRight.x - 1);
-
-        final int wallToIgnore = randomizer.random(4);
-        if (wallToIgnore != 0) {
-            // make hole in wall pointing up.
-            final int y = randomizer.between(topLeft.y, crossing.y);
-            grid.getHorizontalWall(new Position(crossing.x, y)).open();
-        }
-        if (wallToIgnore != 1) {
-            // make hole in wall pointing down.
-            final int y = randomizer.between(crossing.y, bottomRight.y);
-            grid.getHorizontalWall(new Position(crossing.x, y)).open();
-        }
-
-        if (wallToIgnore != 2) {
-            // make hole in wall pointing right.
-            final int x = randomizer.between(crossing.x, bottomRight.x);
-            grid.getVerticalWall(new Position(x, crossing.y)).open();
-        }
-
-        if (wallToIgnore != 3) {
-            // make hole in wall pointing left.
-            final int x = randomizer.between(topLeft.x, crossing.x);
-            grid.getVerticalWall(new Position(x, crossing.y)).open();
-        }
+        division.apply(grid);
 
         setChanged();
         notifyObservers();
 
         // Recurse into the four new chambers made by drawing the horizontal and
         // vertical wall.
+        final Position crossing = division.crossing;
         subdivide(grid, topLeft, crossing);
         subdivide(grid, crossing, bottomRight);
         subdivide(grid, new Position(crossing.x, topLeft.y), new Position(bottomRight.x, crossing.y));
         subdivide(grid, new Position(topLeft.x, crossing.y), new Position(crossing.x, bottomRight.y));
     }
 
+    /**
+     * The two walls through a chamber and the holes in them, chosen without
+     * touching the grid.
+     */
+    static class Division {
+        final Position topLeft;
+        final Position bottomRight;
+        final Position crossing;
+        final int wallToIgnore;
+        final int[] holes = new int[4];
+
+        private Division(final Position topLeft, final Position bottomRight, final Position crossing,
+                         final int wallToIgnore) {
+            this.topLeft = topLeft;
+            this.bottomRight = bottomRight;
+            this.crossing = crossing;
+            this.wallToIgnore = wallToIgnore;
+        }
+
+        /**
+         * @return the division, or null if the chamber is too small.
+         */
+        static Division choose(final Position topLeft, final Position bottomRight, final Randomizer randomizer) {
+            log.debug("Subdividing [{}]-[{}]", topLeft, bottomRight);
+            if (bottomRight.x - topLeft.x < 2 || bottomRight.y - topLeft.y < 2) {
+                // Too little space to subdivide
+                return null;
+            }
+            final Position crossing = new Position(randomizer.between(topLeft.x, bottomRight.x - 1) + 1,
+                    randomizer.between(topLeft.y, bottomRight.y - 1) + 1);
+            final Division division = new Division(topLeft, bottomRight, crossing, randomizer.random(4));
+            if (division.wallToIgnore != 0) {
+                // hole in wall pointing up.
+                division.holes[0] = randomizer.between(topLeft.y, crossing.y);
+            }
+            if (division.wallToIgnore != 1) {
+                // hole in wall pointing down.
+                division.holes[1] = randomizer.between(crossing.y, bottomRight.y);
+            }
+            if (division.wallToIgnore != 2) {
+                // hole in wall pointing right.
+                division.holes[2] = randomizer.between(crossing.x, bottomRight.x);
+            }
+            if (division.wallToIgnore != 3) {
+                // hole in wall pointing left.
+                division.holes[3] = randomizer.between(topLeft.x, crossing.x);
+            }
+            return division;
+        }
+
+        /**
+         * Draw the two walls, and make the holes in them.
+         */
+        void apply(final Grid.UtilityWrapper grid) {
+            grid.drawVerticalWall(crossing.x, topLeft.y, bottomRight.y - 1);
+            grid.drawHorizontalWall(crossing.y, topLeft.x, bottomRight.x - 1);
+            for (int wall = 0; wall < 4; wall++) {
+                if (wall == wallToIgnore) {
+                    continue;
+                }
+                if (wall < 2) {
+                    grid.getWall(crossing.x, holes[wall], false).open();
+                } else {
+                    grid.getWall(holes[wall], crossing.y, true).open();
+                }
+            }
+        }
+    }
 }
@@ -1,106 +1,132 @@
 package com.laamella.amazingmazes.generators.various;
 
+import com.laamella.amazingmazes.generators.IndexedLongSet;
 import com.laamella.amazingmazes.generators.MatrixMazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
+import com.laamella.amazingmazes.mazemodel.PackedPosition;
 import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
 import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 /**
  * <a href="http://www.glimt.dk/code/labyrinth.htm">An algorithm by some
  * guy.</a>
+ * <p>
+ * Possible positions are kept packed in an {@link IndexedLongSet}, so no
+ * objects are created per visited cell.
  */
-public class RysgaardMazeGenerator implements MatrixMazeGenerator {
-    private static Logger log = LoggerFactory.getLogger(RysgaardMazeGenerator.class);
-
+public class RysgaardMazeGenerator implements MatrixMazeGenerator, Instrumented {
     private final Randomizer randomizer;
+    private Instrumentation instrumentation = Instrumentation.NONE;
 
-    private static final List<Position> EIGHT_OFFSETS_AROUND_CELL = Arrays.asList(//
-            new Position(-1, -1), new Position(0, -1), new Position(1, -1), //
-            new Position(-1, 0), new Position(1, 0), //
-            new Position(-1, 1), new Position(0, 1), new Position(1, 1)//
-    );
+    private static final int[] EIGHT_OFFSETS_AROUND_CELL_X = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] EIGHT_OFFSETS_AROUND_CELL_Y = {-1, -1, -1, 0, 0, 1, 1, 1};
 
     public RysgaardMazeGenerator(final Randomizer randomizer) {
         this.randomizer = randomizer;
     }
 
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
     @Override
     public void generateMaze(final StateMatrix matrix) {
+        generateMaze(BitMatrix.passagesOf(matrix), matrix);
+    }
+
+    @Override
+    public void generateMaze(final BitMatrix matrix) {
+        generateMaze(matrix, null);
+    }
+
+    /**
+     * Works on the bits, and also marks every new passage in the state matrix
+     * right away, if there is one, so its observers can follow along.
+     */
+    private void generateMaze(final BitMatrix matrix, final StateMatrix states) {
         // 1. Fill the entire labyrinth with walls
 
         // 2. Find a random beginning position, store it as a possible position
         // and make it the current position
-        final Set<Position> possiblePositions = new HashSet<>();
-        Position currentPosition = randomizer.randomPosition(matrix.getSize());
-        possiblePositions.add(currentPosition);
-
-        // 3. Mark the current position as a path in the labyrinth and remove it
-        // from the list of possible positions
-        do {
-            matrix.get(currentPosition).setState(MazeDefinitionState.PASSAGE, true);
-            possiblePositions.remove(currentPosition);
+        final IndexedLongSet possiblePositions = new IndexedLongSet();
+        final Position start = randomizer.randomPosition(matrix.getSize());
+        possiblePositions.add(PackedPosition.pack(start));
+        final long startTime = instrumentation.phaseStarted("generate");
+
+        // 6. If more possible positions are left then get the next random
+        // possible position and restart from point 3
+        while (!possiblePositions.isEmpty()) {
+            // 3. Mark the current position as a path in the labyrinth and remove
+            // it from the list of possible positions
+            final long currentPosition = possiblePositions.removeRandom(randomizer);
+            final int x = PackedPosition.x(currentPosition);
+            final int y = PackedPosition.y(currentPosition);
+            carve(matrix, states, x, y);
+            instrumentation.cellsVisited(1);
 
             // 4. Remove surrounding positions invalidated by the current
-            // position
-            // from the list of possible positions
-            removeInvalidatedPositions(possiblePositions, currentPosition);
+            // position from the list of possible positions
+            removeInvalidatedPositions(possiblePositions, x, y);
 
             // 5. Add left, right, upper and lower cell positions created by the
             // newly used position to the list of possible positions
-            addNewCellPositions(matrix, possiblePositions, currentPosition);
-
-            // 6. If more possible positions are left then get the next random
-            // possible position and restart from point 3
-            currentPosition = randomizer.pickOne(possiblePositions);
-        } while (possiblePositions.size() > 0);
+            addNewCellPositions(matrix, possiblePositions, x, y);
+            instrumentation.frontierSize(possiblePositions.size());
+        }
+        instrumentation.phaseEnded("generate", startTime);
     }
 
-    private void addNewCellPositions(final StateMatrix matrix, final Set<Position> possiblePositions,
-                                     final Position currentPosition) {
+    private void addNewCellPositions(final BitMatrix matrix, final IndexedLongSet possiblePositions,
+                                     final int x, final int y) {
         for (final Direction direction : Direction.values()) {
-            checkOffset(possiblePositions, matrix, currentPosition, direction.getMove());
+            final Position move = direction.getMove();
+            checkOffset(possiblePositions, matrix, x, y, move.x, move.y);
         }
     }
 
     /**
      * Check a 2x3 or 3x2 area in the specified direction for any non-walls
      */
-    private void checkOffset(final Set<Position> possiblePositions, final StateMatrix matrix,
-                             final Position positionToCheck, final Position direction) {
-        final Position neighbour = positionToCheck.move(direction);
-        if (isWall(matrix, neighbour) && isWall(matrix, neighbour.move(direction.negate().switchXY()))
-                && isWall(matrix, neighbour.move(direction.switchXY()))) {
-            final Position neighbourOfNeighbour = neighbour.move(direction);
-            if (isWall(matrix, neighbourOfNeighbour)
-                    && isWall(matrix, neighbourOfNeighbour.move(direction.switchXY().negate()))
-                    && isWall(matrix, neighbourOfNeighbour.move(direction.switchXY()))) {
-                if (!possiblePositions.contains(neighbour)) {
-                    possiblePositions.add(neighbour);
-                }
+    private void checkOffset(final IndexedLongSet possiblePositions, final BitMatrix matrix,
+                             final int x, final int y, final int dx, final int dy) {
+        // (dy, dx) is the direction turned sideways.
+        final int neighbourX = x + dx;
+        final int neighbourY = y + dy;
+        if (isWall(matrix, neighbourX, neighbourY) && isWall(matrix, neighbourX - dy, neighbourY - dx)
+                && isWall(matrix, neighbourX + dy, neighbourY + dx)) {
+            final int neighbourOfNeighbourX = neighbourX + dx;
+            final int neighbourOfNeighbourY = neighbourY + dy;
+            if (isWall(matrix, neighbourOfNeighbourX, neighbourOfNeighbourY)
+                    && isWall(matrix, neighbourOfNeighbourX - dy, neighbourOfNeighbourY - dx)
+                    && isWall(matrix, neighbourOfNeighbourX + dy, neighbourOfNeighbourY + dx)) {
+                possiblePositions.add(PackedPosition.pack(neighbourX, neighbourY));
             }
         }
     }
 
-    private boolean isWall(final StateMatrix matrix, final Position position) {
-        log.debug("Checking wallness of position " + position);
-        if (position.isInside(matrix.getSize())) {
-            return !matrix.get(position).hasState(MazeDefinitionState.PASSAGE);
+    private static boolean isWall(final BitMatrix matrix, final int x, final int y) {
+        if (x >= 0 && y >= 0 && x < matrix.getSize().width && y < matrix.getSize().height) {
+            return !matrix.getBit(x, y);
         }
         return false;
     }
 
-    private void removeInvalidatedPositions(final Set<Position> possiblePositions, final Position currentPosition) {
-        for (final Position offset : EIGHT_OFFSETS_AROUND_CELL) {
-            possiblePositions.remove(currentPosition.move(offset));
+    private void removeInvalidatedPositions(final IndexedLongSet possiblePositions, final int x, final int y) {
+        for (int i = 0; i < EIGHT_OFFSETS_AROUND_CELL_X.length; i++) {
+            possiblePositions.remove(PackedPosition.pack(x + EIGHT_OFFSETS_AROUND_CELL_X[i], y + EIGHT_OFFSETS_AROUND_CELL_Y[i]));
+        }
+    }
+
+    private static void carve(final BitMatrix matrix, final StateMatrix states, final int x, final int y) {
+        matrix.set(x, y, true);
+        if (states != null) {
+            states.get(x, y).setState(MazeDefinitionState.PASSAGE, true);
         }
     }
 }
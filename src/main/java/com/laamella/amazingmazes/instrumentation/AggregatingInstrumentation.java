@@ -0,0 +1,150 @@
+package com.laamella.amazingmazes.instrumentation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds up everything that is reported to it. It can be shared between threads,
+ * so one instance can collect the numbers for a whole batch of jobs. Take a
+ * {@link Snapshot} to read the numbers.
+ */
+public class AggregatingInstrumentation implements Instrumentation {
+    private final LongAdder cellsVisited = new LongAdder();
+    private final LongAdder wallsOpened = new LongAdder();
+    private final LongAdder randomDraws = new LongAdder();
+    private final LongAccumulator maximumFrontierSize = new LongAccumulator(Math::max, 0);
+    private final Map<String, PhaseTotals> phases = new ConcurrentHashMap<>();
+
+    @Override
+    public void cellsVisited(final long count) {
+        cellsVisited.add(count);
+    }
+
+    @Override
+    public void wallsOpened(final long count) {
+        wallsOpened.add(count);
+    }
+
+    @Override
+    public void randomDraws(final long count) {
+        randomDraws.add(count);
+    }
+
+    @Override
+    public void frontierSize(final long size) {
+        maximumFrontierSize.accumulate(size);
+    }
+
+    @Override
+    public long phaseStarted(final String phase) {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void phaseEnded(final String phase, final long startTime) {
+        final long elapsed = System.nanoTime() - startTime;
+        final PhaseTotals totals = phases.computeIfAbsent(phase, p -> new PhaseTotals());
+        totals.count.increment();
+        totals.nanos.add(elapsed);
+    }
+
+    public Snapshot snapshot() {
+        final Map<String, Long> phaseCounts = new TreeMap<>();
+        final Map<String, Long> phaseNanos = new TreeMap<>();
+        for (final Map.Entry<String, PhaseTotals> phase : phases.entrySet()) {
+            phaseCounts.put(phase.getKey(), phase.getValue().count.sum());
+            phaseNanos.put(phase.getKey(), phase.getValue().nanos.sum());
+        }
+        return new Snapshot(cellsVisited.sum(), wallsOpened.sum(), randomDraws.sum(), maximumFrontierSize.get(),
+                phaseCounts, phaseNanos);
+    }
+
+    /**
+     * Starts counting from zero again. Reports that come in while resetting
+     * may or may not be counted.
+     */
+    public void reset() {
+        cellsVisited.reset();
+        wallsOpened.reset();
+        randomDraws.reset();
+        maximumFrontierSize.reset();
+        phases.clear();
+    }
+
+    private static class PhaseTotals {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * The numbers at one moment.
+     */
+    public static class Snapshot {
+        private final long cellsVisited;
+        private final long wallsOpened;
+        private final long randomDraws;
+        private final long maximumFrontierSize;
+        private final Map<String, Long> phaseCounts;
+        private final Map<String, Long> phaseNanos;
+
+        Snapshot(final long cellsVisited, final long wallsOpened, final long randomDraws,
+                 final long maximumFrontierSize, final Map<String, Long> phaseCounts,
+                 final Map<String, Long> phaseNanos) {
+            this.cellsVisited = cellsVisited;
+            this.wallsOpened = wallsOpened;
+            this.randomDraws = randomDraws;
+            this.maximumFrontierSize = maximumFrontierSize;
+            this.phaseCounts = Collections.unmodifiableMap(phaseCounts);
+            this.phaseNanos = Collections.unmodifiableMap(phaseNanos);
+        }
+
+        public long getCellsVisited() {
+            return cellsVisited;
+        }
+
+        public long getWallsOpened() {
+            return wallsOpened;
+        }
+
+        public long getRandomDraws() {
+            return randomDraws;
+        }
+
+        public long getMaximumFrontierSize() {
+            return maximumFrontierSize;
+        }
+
+        /**
+         * @return how often each phase ran.
+         */
+        public Map<String, Long> getPhaseCounts() {
+            return phaseCounts;
+        }
+
+        /**
+         * @return the total time spent in each phase, in nanoseconds.
+         */
+        public Map<String, Long> getPhaseNanos() {
+            return phaseNanos;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder text = new StringBuilder();
+            text.append("cells visited: ").append(cellsVisited);
+            text.append(", walls opened: ").append(wallsOpened);
+            text.append(", random draws: ").append(randomDraws);
+            text.append(", maximum frontier size: ").append(maximumFrontierSize);
+            for (final Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+                text.append(", ").append(phase.getKey()).append(": ");
+                text.append(phaseCounts.get(phase.getKey())).append("x ");
+                text.append(phase.getValue() / 1000000).append("ms");
+            }
+            return text.toString();
+        }
+    }
+}
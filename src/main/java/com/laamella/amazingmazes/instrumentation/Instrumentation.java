@@ -0,0 +1,57 @@
+package com.laamella.amazingmazes.instrumentation;
+
+/**
+ * Receives counts and timings from generators, solvers and operations while
+ * they run. Every method does nothing by default, so an implementation only
+ * overrides what it is interested in.
+ * <p>
+ * Algorithms start out with {@link #NONE}. When that is the only
+ * implementation in use, the JIT inlines the empty calls away, so reporting
+ * costs nothing.
+ */
+public interface Instrumentation {
+    Instrumentation NONE = new Instrumentation() {
+        @Override
+        public String toString() {
+            return "No instrumentation";
+        }
+    };
+
+    /**
+     * Cells (squares, vertices) were visited or added to the maze.
+     */
+    default void cellsVisited(final long count) {
+    }
+
+    /**
+     * Walls (edges) were opened.
+     */
+    default void wallsOpened(final long count) {
+    }
+
+    /**
+     * Random numbers were drawn.
+     */
+    default void randomDraws(final long count) {
+    }
+
+    /**
+     * The current size of the frontier, open list, stack or queue of the
+     * algorithm. Only the highest value is interesting.
+     */
+    default void frontierSize(final long size) {
+    }
+
+    /**
+     * @return a start time to pass to phaseEnded.
+     */
+    default long phaseStarted(final String phase) {
+        return 0;
+    }
+
+    /**
+     * @param startTime what phaseStarted returned.
+     */
+    default void phaseEnded(final String phase, final long startTime) {
+    }
+}
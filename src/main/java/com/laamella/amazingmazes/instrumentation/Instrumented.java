@@ -0,0 +1,8 @@
+package com.laamella.amazingmazes.instrumentation;
+
+/**
+ * Something that can report to an {@link Instrumentation}.
+ */
+public interface Instrumented {
+    void setInstrumentation(Instrumentation instrumentation);
+}
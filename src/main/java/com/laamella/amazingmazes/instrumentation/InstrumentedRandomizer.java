@@ -0,0 +1,69 @@
+package com.laamella.amazingmazes.instrumentation;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Wraps a randomizer and reports every number it draws. Shuffling n items
+ * counts as n-1 draws, which is what a Fisher-Yates shuffle takes.
+ */
+public class InstrumentedRandomizer implements Randomizer {
+    private final Randomizer delegateRandomizer;
+    private final Instrumentation instrumentation;
+
+    public InstrumentedRandomizer(final Randomizer delegateRandomizer, final Instrumentation instrumentation) {
+        this.delegateRandomizer = delegateRandomizer;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void reset() {
+        delegateRandomizer.reset();
+    }
+
+    @Override
+    public boolean chance(final double d) {
+        instrumentation.randomDraws(1);
+        return delegateRandomizer.chance(d);
+    }
+
+    @Override
+    public Position randomPosition(final Size size) {
+        instrumentation.randomDraws(2);
+        return delegateRandomizer.randomPosition(size);
+    }
+
+    @Override
+    public int random(final int max) {
+        instrumentation.randomDraws(1);
+        return delegateRandomizer.random(max);
+    }
+
+    @Override
+    public long randomBits() {
+        instrumentation.randomDraws(1);
+        return delegateRandomizer.randomBits();
+    }
+
+    @Override
+    public int between(final int a, final int b) {
+        instrumentation.randomDraws(1);
+        return delegateRandomizer.between(a, b);
+    }
+
+    @Override
+    public <T> List<T> shuffle(final Collection<T> collection) {
+        instrumentation.randomDraws(Math.max(0, collection.size() - 1));
+        return delegateRandomizer.shuffle(collection);
+    }
+
+    @Override
+    public <T> T pickOne(final Collection<T> collection) {
+        instrumentation.randomDraws(Math.max(0, collection.size() - 1));
+        return delegateRandomizer.pickOne(collection);
+    }
+}
@@ -0,0 +1,35 @@
+package com.laamella.amazingmazes.mazemodel;
+
+/**
+ * A position in 2D space packed into a long, with x in the high and y in the
+ * low 32 bits. Useful as a key in primitive collections, where a
+ * {@link Position} would cost an object per square.
+ */
+public final class PackedPosition {
+    private PackedPosition() {
+    }
+
+    public static long pack(final int x, final int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public static long pack(final Position position) {
+        return pack(position.x, position.y);
+    }
+
+    public static int x(final long packedPosition) {
+        return (int) (packedPosition >> 32);
+    }
+
+    public static int y(final long packedPosition) {
+        return (int) packedPosition;
+    }
+
+    public static long move(final long packedPosition, final int dx, final int dy) {
+        return pack(x(packedPosition) + dx, y(packedPosition) + dy);
+    }
+
+    public static Position unpack(final long packedPosition) {
+        return new Position(x(packedPosition), y(packedPosition));
+    }
+}
@@ -13,5 +13,23 @@ public class Size {
         this.height = height;
         this.area = width * height;
     }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Size) {
+            return ((Size) obj).width == width && ((Size) obj).height == height;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return width * 31 + height;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
 }
 
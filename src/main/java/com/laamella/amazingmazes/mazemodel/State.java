@@ -26,13 +26,25 @@ public interface State {
 
         @Override
         public void setState(final Object newState, final boolean mustBeSet) {
+            if (setStateWithoutNotifying(newState, mustBeSet)) {
+                notifyChanged();
+            }
+        }
+
+        /**
+         * Like setState(Object, boolean), but leaves notifying the observers
+         * to the caller, so a change to many states can be reported once.
+         *
+         * @return whether the state changed.
+         */
+        public boolean setStateWithoutNotifying(final Object newState, final boolean mustBeSet) {
             final boolean alreadyHas = hasState(newState);
 
             if (alreadyHas && mustBeSet) {
-                return;
+                return false;
             }
             if ((!alreadyHas) && (!mustBeSet)) {
-                return;
+                return false;
             }
 
             if (mustBeSet) {
@@ -40,6 +52,13 @@ public interface State {
             } else {
                 states.remove(newState);
             }
+            return true;
+        }
+
+        /**
+         * Tell the observers that the states changed.
+         */
+        public void notifyChanged() {
             setChanged();
             notifyObservers();
         }
@@ -54,5 +73,16 @@ public interface State {
             states.put(state, value);
         }
 
+        /**
+         * Removes all states.
+         */
+        public void clear() {
+            if (!states.isEmpty()) {
+                states.clear();
+                setChanged();
+                notifyObservers();
+            }
+        }
+
     }
 }
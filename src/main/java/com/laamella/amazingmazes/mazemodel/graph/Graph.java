@@ -20,6 +20,10 @@ public interface Graph {
             this.delegateGraph = delegateGraph;
         }
 
+        public Graph getDelegateGraph() {
+            return delegateGraph;
+        }
+
         public Vertex getEntrance() {
             return getVertexWithState(ENTRANCE);
         }
@@ -0,0 +1,171 @@
+package com.laamella.amazingmazes.mazemodel.graph;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers the vertices and edges of a graph from 0 upwards, so algorithms can
+ * keep their bookkeeping in primitive arrays instead of in sets of vertices.
+ * <p>
+ * The edges around every vertex are stored as one flat array (compressed
+ * sparse rows): the edges of vertex v are found at adjacency indices
+ * getAdjacencyStart(v) up to getAdjacencyEnd(v).
+ * <p>
+ * Grids are numbered in reading order, also when they are wrapped in a
+ * {@link Graph.UtilityWrapper}, so anything randomized on top of the numbering
+ * is reproducible with a seeded randomizer. Other graphs are numbered in the
+ * iteration order of their vertex and edge sets. That is only reproducible
+ * when those sets have a stable order, like a LinkedHashSet; a HashSet of
+ * vertices without their own hashCode is ordered differently on every run.
+ */
+public class GraphIndex {
+    private final Vertex[] vertices;
+    private final Edge[] edges;
+    private final int[] vertexA;
+    private final int[] vertexB;
+    private final int[] adjacencyStart;
+    private final int[] adjacentEdges;
+    private final Map<Vertex, Integer> vertexIds;
+
+    public GraphIndex(final Graph graph) {
+        final List<Vertex> vertexList = new ArrayList<>();
+        final List<Edge> edgeList = new ArrayList<>();
+        Graph unwrappedGraph = graph;
+        while (unwrappedGraph instanceof Graph.UtilityWrapper) {
+            unwrappedGraph = ((Graph.UtilityWrapper) unwrappedGraph).getDelegateGraph();
+        }
+        if (unwrappedGraph instanceof Grid) {
+            collectGridObjects((Grid) unwrappedGraph, vertexList, edgeList);
+        } else {
+            vertexList.addAll(unwrappedGraph.getVertices());
+            edgeList.addAll(unwrappedGraph.getEdges());
+        }
+
+        vertices = vertexList.toArray(new Vertex[vertexList.size()]);
+        vertexIds = new HashMap<>(vertices.length * 2);
+        for (int i = 0; i < vertices.length; i++) {
+            vertexIds.put(vertices[i], i);
+        }
+
+        final List<Edge> connectingEdges = new ArrayList<>(edgeList.size());
+        for (final Edge edge : edgeList) {
+            if (vertexIds.containsKey(edge.getVertexA()) && vertexIds.containsKey(edge.getVertexB())) {
+                connectingEdges.add(edge);
+            }
+        }
+        edges = connectingEdges.toArray(new Edge[connectingEdges.size()]);
+        vertexA = new int[edges.length];
+        vertexB = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            vertexA[i] = vertexIds.get(edges[i].getVertexA());
+            vertexB[i] = vertexIds.get(edges[i].getVertexB());
+        }
+
+        adjacencyStart = new int[vertices.length + 1];
+        for (int i = 0; i < edges.length; i++) {
+            adjacencyStart[vertexA[i] + 1]++;
+            adjacencyStart[vertexB[i] + 1]++;
+        }
+        for (int v = 0; v < vertices.length; v++) {
+            adjacencyStart[v + 1] += adjacencyStart[v];
+        }
+        adjacentEdges = new int[edges.length * 2];
+        final int[] fill = new int[vertices.length];
+        for (int i = 0; i < edges.length; i++) {
+            adjacentEdges[adjacencyStart[vertexA[i]] + fill[vertexA[i]]++] = i;
+            adjacentEdges[adjacencyStart[vertexB[i]] + fill[vertexB[i]]++] = i;
+        }
+    }
+
+    private static void collectGridObjects(final Grid grid, final List<Vertex> vertexList, final List<Edge> edgeList) {
+        final int width = grid.getSize().width;
+        final int height = grid.getSize().height;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final Square square = grid.getSquare(new Position(x, y));
+                vertexList.add(square);
+                if (x < width - 1) {
+                    edgeList.add(square.getWall(Direction.RIGHT));
+                }
+                if (y < height - 1) {
+                    edgeList.add(square.getWall(Direction.DOWN));
+                }
+            }
+        }
+    }
+
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    public Vertex getVertex(final int vertexId) {
+        return vertices[vertexId];
+    }
+
+    public Edge getEdge(final int edgeId) {
+        return edges[edgeId];
+    }
+
+    /**
+     * @return the id of the vertex, or -1 when it is not part of the graph.
+     */
+    public int getVertexId(final Vertex vertex) {
+        final Integer id = vertexIds.get(vertex);
+        if (id == null) {
+            return -1;
+        }
+        return id;
+    }
+
+    public int getVertexA(final int edgeId) {
+        return vertexA[edgeId];
+    }
+
+    public int getVertexB(final int edgeId) {
+        return vertexB[edgeId];
+    }
+
+    /**
+     * @return the vertex on the other side of the edge.
+     */
+    public int travel(final int edgeId, final int sourceVertexId) {
+        if (vertexA[edgeId] == sourceVertexId) {
+            return vertexB[edgeId];
+        }
+        return vertexA[edgeId];
+    }
+
+    public int getAdjacencyStart(final int vertexId) {
+        return adjacencyStart[vertexId];
+    }
+
+    public int getAdjacencyEnd(final int vertexId) {
+        return adjacencyStart[vertexId + 1];
+    }
+
+    /**
+     * @return the id of the edge stored at this adjacency index.
+     */
+    public int getAdjacentEdge(final int adjacencyIndex) {
+        return adjacentEdges[adjacencyIndex];
+    }
+
+    public int getMaximumDegree() {
+        int maximum = 0;
+        for (int v = 0; v < vertices.length; v++) {
+            maximum = Math.max(maximum, adjacencyStart[v + 1] - adjacencyStart[v]);
+        }
+        return maximum;
+    }
+}
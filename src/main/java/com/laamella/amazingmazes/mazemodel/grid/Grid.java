@@ -11,11 +11,85 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Set;
 
+/**
+ * The bulk wall operations number walls like
+ * {@link com.laamella.amazingmazes.mazemodel.grid.implementation.GridStateStorage}
+ * does: horizontal wall x,y is above square x,y, vertical wall x,y is left of
+ * it.
+ */
 public interface Grid extends Graph {
     Square getSquare(Position position);
 
+    /**
+     * The same as getSquare(Position), without needing a Position object.
+     */
+    default Square getSquare(final int x, final int y) {
+        return getSquare(new Position(x, y));
+    }
+
     Size getSize();
 
+    /**
+     * @return horizontal wall x,y (above square x,y) or vertical wall x,y (left
+     * of square x,y.)
+     */
+    default Wall getWall(final int x, final int y, final boolean horizontal) {
+        if (horizontal) {
+            if (y < getSize().height) {
+                return getSquare(x, y).getWall(Direction.UP);
+            }
+            return getSquare(x, y - 1).getWall(Direction.DOWN);
+        }
+        if (x < getSize().width) {
+            return getSquare(x, y).getWall(Direction.LEFT);
+        }
+        return getSquare(x - 1, y).getWall(Direction.RIGHT);
+    }
+
+    /**
+     * Open or close the horizontal walls x1..x2 of row y, which form a
+     * horizontal line.
+     */
+    default void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        for (int x = x1; x <= x2; x++) {
+            getWall(x, y, true).setOpened(opened);
+        }
+    }
+
+    /**
+     * Open or close the vertical walls y1..y2 of column x, which form a
+     * vertical line.
+     */
+    default void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        for (int y = y1; y <= y2; y++) {
+            getWall(x, y, false).setOpened(opened);
+        }
+    }
+
+    /**
+     * Open or close every wall, including the border.
+     */
+    default void setAllWallsOpened(final boolean opened) {
+        setWallsInsideRectangleOpened(new Position(0, 0), getSize(), opened);
+        setHorizontalWallsOpened(0, 0, getSize().width - 1, opened);
+        setHorizontalWallsOpened(getSize().height, 0, getSize().width - 1, opened);
+        setVerticalWallsOpened(0, 0, getSize().height - 1, opened);
+        setVerticalWallsOpened(getSize().width, 0, getSize().height - 1, opened);
+    }
+
+    /**
+     * Open or close the walls between the squares of a rectangle. The walls
+     * around the rectangle are left alone.
+     */
+    default void setWallsInsideRectangleOpened(final Position topLeft, final Size size, final boolean opened) {
+        for (int y = topLeft.y + 1; y < topLeft.y + size.height; y++) {
+            setHorizontalWallsOpened(y, topLeft.x, topLeft.x + size.width - 1, opened);
+        }
+        for (int x = topLeft.x + 1; x < topLeft.x + size.width; x++) {
+            setVerticalWallsOpened(x, topLeft.y, topLeft.y + size.height - 1, opened);
+        }
+    }
+
     class UtilityWrapper implements Grid {
         private static Logger log = LoggerFactory.getLogger(Grid.UtilityWrapper.class);
         private final Grid delegateGrid;
@@ -27,30 +101,12 @@ public interface Grid extends Graph {
         @Deprecated
         public void closeAllWalls() {
             log.debug("closeAllWalls");
-            forAllSquares(new SquareVisitor<Void>() {
-                @Override
-                public Void visitSquare(final Position position, final Square square) {
-                    square.getWall(Direction.UP).close();
-                    square.getWall(Direction.RIGHT).close();
-                    square.getWall(Direction.DOWN).close();
-                    square.getWall(Direction.LEFT).close();
-                    return null;
-                }
-            });
+            delegateGrid.setAllWallsOpened(false);
         }
 
         public void openAllWalls() {
             log.debug("openAllWalls");
-            forAllSquares(new SquareVisitor<Void>() {
-                @Override
-                public Void visitSquare(final Position position, final Square square) {
-                    square.getWall(Direction.UP).open();
-                    square.getWall(Direction.RIGHT).open();
-                    square.getWall(Direction.DOWN).open();
-                    square.getWall(Direction.LEFT).open();
-                    return null;
-                }
-            });
+            delegateGrid.setAllWallsOpened(true);
         }
 
         @FunctionalInterface
@@ -71,6 +127,37 @@ public interface Grid extends Graph {
             return null;
         }
 
+        /**
+         * Like a SquareVisitor, but gets the coordinates instead of a Position.
+         */
+        @FunctionalInterface
+        public interface SquareCoordinateVisitor<T> {
+            T visitSquare(int x, int y, Square square);
+        }
+
+        public <T> T forAllSquares(final SquareCoordinateVisitor<T> visitor) {
+            for (int y = 0; y < delegateGrid.getSize().height; y++) {
+                final T t = forSquaresInRow(y, 0, delegateGrid.getSize().width - 1, visitor);
+                if (t != null) {
+                    return t;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Visits squares x1..x2 of row y, left to right.
+         */
+        public <T> T forSquaresInRow(final int y, final int x1, final int x2, final SquareCoordinateVisitor<T> visitor) {
+            for (int x = x1; x <= x2; x++) {
+                final T t = visitor.visitSquare(x, y, delegateGrid.getSquare(x, y));
+                if (t != null) {
+                    return t;
+                }
+            }
+            return null;
+        }
+
         public boolean isBorderSquare(final Position position) {
             return isBorderSquare(Direction.UP, position) || //
                     isBorderSquare(Direction.RIGHT, position) || //
@@ -103,28 +190,54 @@ public interface Grid extends Graph {
             return delegateGrid.getSquare(position);
         }
 
+        @Override
+        public Square getSquare(final int x, final int y) {
+            return delegateGrid.getSquare(x, y);
+        }
+
         public Square randomSquare(final Randomizer randomGenerator) {
             return getSquare(randomGenerator.randomPosition(getSize()));
         }
 
         public Square getTopLeftSquare() {
-            return getSquare(new Position(0, 0));
+            return getSquare(0, 0);
         }
 
         public Square getBottomRightSquare() {
-            return getSquare(new Position(getSize().width - 1, getSize().height - 1));
+            return getSquare(getSize().width - 1, getSize().height - 1);
         }
 
         public void drawVerticalWall(final int x, final int y1, final int y2) {
-            for (int y = y1; y <= y2; y++) {
-                getHorizontalWall(new Position(x, y)).close();
-            }
+            delegateGrid.setVerticalWallsOpened(x, y1, y2, false);
         }
 
         public void drawHorizontalWall(final int y, final int x1, final int x2) {
-            for (int x = x1; x <= x2; x++) {
-                getVerticalWall(new Position(x, y)).close();
-            }
+            delegateGrid.setHorizontalWallsOpened(y, x1, x2, false);
+        }
+
+        @Override
+        public Wall getWall(final int x, final int y, final boolean horizontal) {
+            return delegateGrid.getWall(x, y, horizontal);
+        }
+
+        @Override
+        public void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+            delegateGrid.setHorizontalWallsOpened(y, x1, x2, opened);
+        }
+
+        @Override
+        public void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+            delegateGrid.setVerticalWallsOpened(x, y1, y2, opened);
+        }
+
+        @Override
+        public void setAllWallsOpened(final boolean opened) {
+            delegateGrid.setAllWallsOpened(opened);
+        }
+
+        @Override
+        public void setWallsInsideRectangleOpened(final Position topLeft, final Size size, final boolean opened) {
+            delegateGrid.setWallsInsideRectangleOpened(topLeft, size, opened);
         }
 
         public Wall getHorizontalWall(final Position position) {
@@ -0,0 +1,87 @@
+package com.laamella.amazingmazes.mazemodel.grid;
+
+/**
+ * A movable spot on a grid. It keeps its coordinates and its index in reading
+ * order as ints, so walking over the grid doesn't create a Position for every
+ * step.
+ */
+public class GridCursor {
+    private final Grid grid;
+    private final int width;
+    private final int height;
+    private int x;
+    private int y;
+
+    public GridCursor(final Grid grid) {
+        this.grid = grid;
+        this.width = grid.getSize().width;
+        this.height = grid.getSize().height;
+    }
+
+    public GridCursor moveTo(final int x, final int y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public GridCursor moveToIndex(final int index) {
+        return moveTo(index % width, index / width);
+    }
+
+    /**
+     * @return whether there is a square in that direction.
+     */
+    public boolean canMove(final Direction direction) {
+        final int newX = x + direction.getMove().x;
+        final int newY = y + direction.getMove().y;
+        return newX >= 0 && newY >= 0 && newX < width && newY < height;
+    }
+
+    /**
+     * Moves one square. Check canMove first: the cursor doesn't stop at the
+     * border.
+     */
+    public GridCursor move(final Direction direction) {
+        x += direction.getMove().x;
+        y += direction.getMove().y;
+        return this;
+    }
+
+    /**
+     * Moves to the next square in reading order.
+     *
+     * @return false when the cursor was on the last square.
+     */
+    public boolean next() {
+        if (x < width - 1) {
+            x++;
+            return true;
+        }
+        if (y < height - 1) {
+            x = 0;
+            y++;
+            return true;
+        }
+        return false;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getIndex() {
+        return x + y * width;
+    }
+
+    public Square getSquare() {
+        return grid.getSquare(x, y);
+    }
+
+    public Wall getWall(final Direction direction) {
+        return getSquare().getWall(direction);
+    }
+}
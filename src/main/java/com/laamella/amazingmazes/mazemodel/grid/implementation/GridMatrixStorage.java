@@ -8,34 +8,34 @@ import com.laamella.amazingmazes.mazemodel.matrix.Matrix;
 
 import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
 
+/**
+ * Stores squares and walls in the cells of a matrix that is twice as big, plus
+ * one. The bulk operations write the cells of the matrix directly, and notify
+ * the observers of the matrix once instead of once per wall.
+ */
 public class GridMatrixStorage implements GridStateStorage {
-    private final Matrix.UtilityWrapper<ObservableObjectSetState> mazeMatrix;
+    private final Matrix<ObservableObjectSetState> mazeMatrix;
     private final Size size;
 
     public GridMatrixStorage(final Matrix<ObservableObjectSetState> mazeMatrix) {
-        this.mazeMatrix = new Matrix.UtilityWrapper<>(mazeMatrix);
+        this.mazeMatrix = mazeMatrix;
         this.size = new Size((mazeMatrix.getSize().width - 1) / 2, (mazeMatrix.getSize().height - 1) / 2);
-        this.mazeMatrix.visitAllSquares(new Matrix.UtilityWrapper.MatrixVisitor<ObservableObjectSetState>() {
-            @Override
-            public void endRow() {
+        // Squares sit on the odd cells of the matrix.
+        for (int y = 1; y < mazeMatrix.getSize().height; y += 2) {
+            for (int x = 1; x < mazeMatrix.getSize().width; x += 2) {
+                mazeMatrix.get(x, y).setState(PASSAGE, true);
             }
-
-            @Override
-            public void visit(final Position position, final ObservableObjectSetState value) {
-                if (position.x % 2 == 1 && position.y % 2 == 1) {
-                    GridMatrixStorage.this.mazeMatrix.get(position).setState(PASSAGE, true);
-                }
-            }
-
-            @Override
-            public void startRow() {
-            }
-        });
+        }
     }
 
     @Override
     public State getSquareState(final Position position) {
-        return mazeMatrix.get(position.scale(2).move(1, 1));
+        return getSquareState(position.x, position.y);
+    }
+
+    @Override
+    public State getSquareState(final int x, final int y) {
+        return mazeMatrix.get(x * 2 + 1, y * 2 + 1);
     }
 
     @Override
@@ -45,9 +45,63 @@ public class GridMatrixStorage implements GridStateStorage {
 
     @Override
     public State getWallState(final Position position, final boolean horizontal) {
+        return getWallState(position.x, position.y, horizontal);
+    }
+
+    @Override
+    public State getWallState(final int x, final int y, final boolean horizontal) {
         if (horizontal) {
-            return mazeMatrix.get(position.scale(2).move(1, 0));
+            return mazeMatrix.get(x * 2 + 1, y * 2);
+        }
+        return mazeMatrix.get(x * 2, y * 2 + 1);
+    }
+
+    @Override
+    public void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        ObservableObjectSetState changed = null;
+        for (int x = x1 * 2 + 1; x <= x2 * 2 + 1; x += 2) {
+            changed = setPassage(x, y * 2, opened, changed);
+        }
+        notifyChanged(changed);
+    }
+
+    @Override
+    public void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        ObservableObjectSetState changed = null;
+        for (int y = y1 * 2 + 1; y <= y2 * 2 + 1; y += 2) {
+            changed = setPassage(x * 2, y, opened, changed);
+        }
+        notifyChanged(changed);
+    }
+
+    @Override
+    public void setAllWallsOpened(final boolean opened) {
+        ObservableObjectSetState changed = null;
+        for (int y = 0; y < mazeMatrix.getSize().height; y++) {
+            // Walls sit on the cells with one odd coordinate.
+            for (int x = 1 - (y & 1); x < mazeMatrix.getSize().width; x += 2) {
+                changed = setPassage(x, y, opened, changed);
+            }
+        }
+        notifyChanged(changed);
+    }
+
+    /**
+     * @return the cell if it changed, otherwise the cell that changed before.
+     */
+    private ObservableObjectSetState setPassage(final int x, final int y, final boolean opened,
+                                                final ObservableObjectSetState changed) {
+        final ObservableObjectSetState cell = mazeMatrix.get(x, y);
+        return cell.setStateWithoutNotifying(PASSAGE, opened) ? cell : changed;
+    }
+
+    /**
+     * The matrix observes its cells, so telling one changed cell's observers
+     * is enough to have the matrix notify its own observers once.
+     */
+    private static void notifyChanged(final ObservableObjectSetState changed) {
+        if (changed != null) {
+            changed.notifyChanged();
         }
-        return mazeMatrix.get(position.scale(2).move(0, 1));
     }
 }
@@ -1,6 +1,5 @@
 package com.laamella.amazingmazes.mazemodel.grid.implementation;
 
-import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
 import com.laamella.amazingmazes.mazemodel.grid.RowGenerator;
 import com.laamella.amazingmazes.mazemodel.grid.Square;
@@ -9,22 +8,25 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- *
+ * Hands out the rows of a grid. The same list is refilled for every row, so a
+ * row is only valid until the next call to nextRow.
  */
 public class GridRowGenerator implements RowGenerator {
     private final Grid grid;
+    private final List<Square> row;
     private int currentRow;
 
     public GridRowGenerator(final Grid grid) {
         this.grid = grid;
+        row = new ArrayList<>(grid.getSize().width);
         currentRow = 0;
     }
 
     @Override
     public List<Square> nextRow() {
-        final List<Square> row = new ArrayList<>();
+        row.clear();
         for (int x = 0; x < grid.getSize().width; x++) {
-            row.add(grid.getSquare(new Position(x, currentRow)));
+            row.add(grid.getSquare(x, currentRow));
         }
         currentRow++;
         return row;
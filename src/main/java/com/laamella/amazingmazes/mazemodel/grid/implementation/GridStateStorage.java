@@ -4,6 +4,8 @@ import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.Size;
 import com.laamella.amazingmazes.mazemodel.State;
 
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
 /**
  * <pre>
  *       -------  &lt;-- horizontal wall x,y
@@ -15,11 +17,74 @@ import com.laamella.amazingmazes.mazemodel.State;
  *    |
  *    vertical wall x,y
  * </pre>
+ * The bulk operations open or close many walls at once. Their default
+ * implementations go through the wall states one by one; storages override
+ * them when they can do better, like filling an array.
  */
 public interface GridStateStorage {
     State getSquareState(Position position);
 
     State getWallState(Position position, boolean horizontal);
 
+    /**
+     * The same as getSquareState(Position), without needing a Position object.
+     */
+    default State getSquareState(final int x, final int y) {
+        return getSquareState(new Position(x, y));
+    }
+
+    /**
+     * The same as getWallState(Position, boolean), without needing a Position
+     * object.
+     */
+    default State getWallState(final int x, final int y, final boolean horizontal) {
+        return getWallState(new Position(x, y), horizontal);
+    }
+
     Size getSize();
+
+    /**
+     * Open or close the horizontal walls x1..x2 of row y, which form a
+     * horizontal line.
+     */
+    default void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        for (int x = x1; x <= x2; x++) {
+            getWallState(x, y, true).setState(PASSAGE, opened);
+        }
+    }
+
+    /**
+     * Open or close the vertical walls y1..y2 of column x, which form a
+     * vertical line.
+     */
+    default void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        for (int y = y1; y <= y2; y++) {
+            getWallState(x, y, false).setState(PASSAGE, opened);
+        }
+    }
+
+    /**
+     * Open or close every wall, including the border.
+     */
+    default void setAllWallsOpened(final boolean opened) {
+        for (int y = 0; y <= getSize().height; y++) {
+            setHorizontalWallsOpened(y, 0, getSize().width - 1, opened);
+        }
+        for (int x = 0; x <= getSize().width; x++) {
+            setVerticalWallsOpened(x, 0, getSize().height - 1, opened);
+        }
+    }
+
+    /**
+     * Open or close the walls between the squares of a rectangle. The walls
+     * around the rectangle are left alone.
+     */
+    default void setWallsInsideRectangleOpened(final Position topLeft, final Size size, final boolean opened) {
+        for (int y = topLeft.y + 1; y < topLeft.y + size.height; y++) {
+            setHorizontalWallsOpened(y, topLeft.x, topLeft.x + size.width - 1, opened);
+        }
+        for (int x = topLeft.x + 1; x < topLeft.x + size.width; x++) {
+            setVerticalWallsOpened(x, topLeft.y, topLeft.y + size.height - 1, opened);
+        }
+    }
 }
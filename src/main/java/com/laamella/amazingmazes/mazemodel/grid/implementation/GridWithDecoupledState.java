@@ -18,8 +18,7 @@ import java.util.Set;
 
 import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
 import static com.laamella.amazingmazes.mazemodel.grid.Direction.*;
-import static com.laamella.amazingmazes.mazemodel.matrix.ArrayUtilities.Visitor2dArray;
-import static com.laamella.amazingmazes.mazemodel.matrix.ArrayUtilities.visit2dArray;
+import static com.laamella.amazingmazes.mazemodel.matrix.ArrayUtilities.visitCells;
 
 /**
  * Grid knows about relationships between squares and walls, but knows nothing
@@ -35,9 +34,11 @@ public class GridWithDecoupledState implements Grid {
     private final WallDefault[][] verticalWalls;
     private final Set<Edge> edges = new HashSet<Edge>();
     private final Set<Vertex> vertices = new HashSet<Vertex>();
+    private final GridStateStorage stateStorage;
 
     public GridWithDecoupledState(final GridStateStorage stateStorage) {
         this.size = stateStorage.getSize();
+        this.stateStorage = stateStorage;
 
         squares = new SquareDefault[size.width][size.height];
         horizontalWalls = new WallDefault[size.width][size.height + 1];
@@ -48,37 +49,44 @@ public class GridWithDecoupledState implements Grid {
     }
 
     private void createGraphObjects(final GridStateStorage stateStorage) {
-        visit2dArray(horizontalWalls, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                final WallDefault wall = new WallDefault(stateStorage, position, true, GridWithDecoupledState.this);
-                horizontalWalls[position.x][position.y] = wall;
-                if (position.y > 0 && position.y < getSize().height) {
-                    edges.add(wall);
-                }
+        visitCells(horizontalWalls, (x, y) -> {
+            final WallDefault wall = new WallDefault(stateStorage, x, y, true, this);
+            horizontalWalls[x][y] = wall;
+            if (y > 0 && y < size.height) {
+                edges.add(wall);
             }
         });
-        visit2dArray(verticalWalls, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                final WallDefault wall = new WallDefault(stateStorage, position, false, GridWithDecoupledState.this);
-                verticalWalls[position.x][position.y] = wall;
-                if (position.x > 0 && position.x < getSize().width) {
-                    edges.add(wall);
-                }
+        visitCells(verticalWalls, (x, y) -> {
+            final WallDefault wall = new WallDefault(stateStorage, x, y, false, this);
+            verticalWalls[x][y] = wall;
+            if (x > 0 && x < size.width) {
+                edges.add(wall);
             }
         });
-        visit2dArray(squares, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                final SquareDefault square = new SquareDefault(stateStorage, position, GridWithDecoupledState.this);
-                squares[position.x][position.y] = square;
-                vertices.add(square);
-                if (position.x == 0 || position.y == 0 || position.x == size.width - 1 || position.y == size.height - 1) {
-                    square.setState(MazeGenerator.POSSIBLE_EXIT, true);
-                }
-            }
+        visitCells(squares, (x, y) -> {
+            final SquareDefault square = new SquareDefault(stateStorage, new Position(x, y), this);
+            squares[x][y] = square;
+            vertices.add(square);
         });
+        markPossibleExits();
+    }
+
+    /**
+     * Marks the squares on the border as POSSIBLE_EXIT. Done when the grid is
+     * created; call it again after clearing the state storage.
+     */
+    public void markPossibleExits() {
+        if (size.area == 0) {
+            return;
+        }
+        for (int x = 0; x < size.width; x++) {
+            squares[x][0].setState(MazeGenerator.POSSIBLE_EXIT, true);
+            squares[x][size.height - 1].setState(MazeGenerator.POSSIBLE_EXIT, true);
+        }
+        for (int y = 0; y < size.height; y++) {
+            squares[0][y].setState(MazeGenerator.POSSIBLE_EXIT, true);
+            squares[size.width - 1][y].setState(MazeGenerator.POSSIBLE_EXIT, true);
+        }
     }
 
     @Override
@@ -86,35 +94,14 @@ public class GridWithDecoupledState implements Grid {
         return size;
     }
 
+    public GridStateStorage getStateStorage() {
+        return stateStorage;
+    }
+
     private void connectGraphObjects() {
-        visit2dArray(horizontalWalls, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                if (position.y == 0 || position.y == getSize().height) {
-                    return;
-                }
-                final Square squareAbove = getSquare(position.move(UP.getMove()));
-                final Square squareBelow = getSquare(position);
-                horizontalWalls[position.x][position.y].connect(squareAbove, squareBelow);
-            }
-        });
-        visit2dArray(verticalWalls, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                if (position.x == 0 || position.x == getSize().width) {
-                    return;
-                }
-                final Square squareLeft = getSquare(position.move(LEFT.getMove()));
-                final Square squareRight = getSquare(position);
-                verticalWalls[position.x][position.y].connect(squareLeft, squareRight);
-            }
-        });
-        visit2dArray(squares, new Visitor2dArray() {
-            @Override
-            public void visit(final Position position) {
-                squares[position.x][position.y].connect();
-            }
-        });
+        visitCells(size.width, size.height - 1, (x, y) -> horizontalWalls[x][y + 1].connect(squares[x][y], squares[x][y + 1]));
+        visitCells(size.width - 1, size.height, (x, y) -> verticalWalls[x + 1][y].connect(squares[x][y], squares[x + 1][y]));
+        visitCells(squares, (x, y) -> squares[x][y].connect());
     }
 
     @Override
@@ -122,6 +109,11 @@ public class GridWithDecoupledState implements Grid {
         return squares[position.x][position.y];
     }
 
+    @Override
+    public Square getSquare(final int x, final int y) {
+        return squares[x][y];
+    }
+
     public Wall getHorizontalWall(final int x, final int y) {
         return horizontalWalls[x][y];
     }
@@ -130,6 +122,34 @@ public class GridWithDecoupledState implements Grid {
         return verticalWalls[x][y];
     }
 
+    @Override
+    public Wall getWall(final int x, final int y, final boolean horizontal) {
+        if (horizontal) {
+            return horizontalWalls[x][y];
+        }
+        return verticalWalls[x][y];
+    }
+
+    @Override
+    public void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        stateStorage.setHorizontalWallsOpened(y, x1, x2, opened);
+    }
+
+    @Override
+    public void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        stateStorage.setVerticalWallsOpened(x, y1, y2, opened);
+    }
+
+    @Override
+    public void setAllWallsOpened(final boolean opened) {
+        stateStorage.setAllWallsOpened(opened);
+    }
+
+    @Override
+    public void setWallsInsideRectangleOpened(final Position topLeft, final Size size, final boolean opened) {
+        stateStorage.setWallsInsideRectangleOpened(topLeft, size, opened);
+    }
+
     @Override
     public Set<Edge> getEdges() {
         return Collections.unmodifiableSet(edges);
@@ -164,19 +184,19 @@ public class GridWithDecoupledState implements Grid {
             edges = new HashSet<Edge>();
             squareMap = new DirectionMap<Square>();
             if (position.y > 0) {
-                squareMap.up = grid.getSquare(position.move(UP.getMove()));
+                squareMap.up = grid.getSquare(position.x, position.y - 1);
                 edges.add(getWall(UP));
             }
             if (position.x < grid.getSize().width - 1) {
-                squareMap.right = grid.getSquare(position.move(RIGHT.getMove()));
+                squareMap.right = grid.getSquare(position.x + 1, position.y);
                 edges.add(getWall(RIGHT));
             }
             if (position.y < grid.getSize().height - 1) {
-                squareMap.down = grid.getSquare(position.move(DOWN.getMove()));
+                squareMap.down = grid.getSquare(position.x, position.y + 1);
                 edges.add(getWall(DOWN));
             }
             if (position.x > 0) {
-                squareMap.left = grid.getSquare(position.move(LEFT.getMove()));
+                squareMap.left = grid.getSquare(position.x - 1, position.y);
                 edges.add(getWall(LEFT));
             }
         }
@@ -242,7 +262,12 @@ public class GridWithDecoupledState implements Grid {
 
         public WallDefault(final GridStateStorage stateStorage, final Position position, final boolean horizontal,
                            final GridWithDecoupledState grid) {
-            this.stateStorage = stateStorage.getWallState(position, horizontal);
+            this(stateStorage, position.x, position.y, horizontal, grid);
+        }
+
+        public WallDefault(final GridStateStorage stateStorage, final int x, final int y, final boolean horizontal,
+                           final GridWithDecoupledState grid) {
+            this.stateStorage = stateStorage.getWallState(x, y, horizontal);
             this.grid = grid;
             this.id = DEBUG_ID++;
         }
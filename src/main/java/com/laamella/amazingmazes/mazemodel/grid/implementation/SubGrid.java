@@ -6,6 +6,7 @@ import com.laamella.amazingmazes.mazemodel.graph.Edge;
 import com.laamella.amazingmazes.mazemodel.graph.Vertex;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
 import com.laamella.amazingmazes.mazemodel.grid.Square;
+import com.laamella.amazingmazes.mazemodel.grid.Wall;
 
 import java.util.Set;
 
@@ -34,6 +35,32 @@ public class SubGrid implements Grid {
         return delegateGrid.getSquare(position.move(topLeft));
     }
 
+    @Override
+    public Square getSquare(final int x, final int y) {
+        return delegateGrid.getSquare(x + topLeft.x, y + topLeft.y);
+    }
+
+    @Override
+    public Wall getWall(final int x, final int y, final boolean horizontal) {
+        return delegateGrid.getWall(x + topLeft.x, y + topLeft.y, horizontal);
+    }
+
+    @Override
+    public void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        delegateGrid.setHorizontalWallsOpened(y + topLeft.y, x1 + topLeft.x, x2 + topLeft.x, opened);
+    }
+
+    @Override
+    public void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        delegateGrid.setVerticalWallsOpened(x + topLeft.x, y1 + topLeft.y, y2 + topLeft.y, opened);
+    }
+
+    @Override
+    public void setWallsInsideRectangleOpened(final Position rectangleTopLeft, final Size rectangleSize,
+                                              final boolean opened) {
+        delegateGrid.setWallsInsideRectangleOpened(rectangleTopLeft.move(topLeft), rectangleSize, opened);
+    }
+
     @Override
     public Set<Edge> getEdges() {
         return delegateGrid.getEdges();
@@ -0,0 +1,221 @@
+package com.laamella.amazingmazes.mazemodel.grid.implementation;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+
+import java.util.Arrays;
+
+/**
+ * The walls of a grid, packed as bits: one bit per wall, set when the wall is
+ * open. The horizontal and the vertical walls each form a plane of rows, and
+ * x,y are numbered like in {@link GridStateStorage}.
+ * <p>
+ * Every row starts at a new word, and bit x of a row is in word x / 64 in
+ * both planes, so algorithms can decide 64 walls at once by writing a word.
+ */
+public class WallPlanes {
+    private final Size size;
+    private final int wordsPerRow;
+    private final long[] horizontalWalls;
+    private final long[] verticalWalls;
+
+    public WallPlanes(final Size size) {
+        this.size = size;
+        this.wordsPerRow = (size.width + 1 + 63) / 64;
+        this.horizontalWalls = new long[wordsPerRow * (size.height + 1)];
+        this.verticalWalls = new long[wordsPerRow * size.height];
+    }
+
+    public Size getSize() {
+        return size;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * @return the wall above square x,y. y may be the height of the grid for
+     * the bottom border.
+     */
+    public boolean isHorizontalWallOpen(final int x, final int y) {
+        return (horizontalWalls[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public void setHorizontalWallOpen(final int x, final int y, final boolean open) {
+        setBit(horizontalWalls, y * wordsPerRow + (x >>> 6), x, open);
+    }
+
+    /**
+     * @return the wall left of square x,y. x may be the width of the grid for
+     * the right border.
+     */
+    public boolean isVerticalWallOpen(final int x, final int y) {
+        return (verticalWalls[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public void setVerticalWallOpen(final int x, final int y, final boolean open) {
+        setBit(verticalWalls, y * wordsPerRow + (x >>> 6), x, open);
+    }
+
+    private static void setBit(final long[] plane, final int word, final int x, final boolean open) {
+        if (open) {
+            plane[word] |= 1L << x;
+        } else {
+            plane[word] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * @return the horizontal walls x = word*64 .. word*64+63 of row y.
+     */
+    public long getHorizontalWord(final int y, final int word) {
+        return horizontalWalls[y * wordsPerRow + word];
+    }
+
+    public void setHorizontalWord(final int y, final int word, final long walls) {
+        horizontalWalls[y * wordsPerRow + word] = walls;
+    }
+
+    /**
+     * Open the horizontal walls in row y that are set in the walls bits.
+     */
+    public void openHorizontalWalls(final int y, final int word, final long walls) {
+        horizontalWalls[y * wordsPerRow + word] |= walls;
+    }
+
+    /**
+     * @return the vertical walls x = word*64 .. word*64+63 of row y.
+     */
+    public long getVerticalWord(final int y, final int word) {
+        return verticalWalls[y * wordsPerRow + word];
+    }
+
+    public void setVerticalWord(final int y, final int word, final long walls) {
+        verticalWalls[y * wordsPerRow + word] = walls;
+    }
+
+    /**
+     * Open the vertical walls in row y that are set in the walls bits.
+     */
+    public void openVerticalWalls(final int y, final int word, final long walls) {
+        verticalWalls[y * wordsPerRow + word] |= walls;
+    }
+
+    /**
+     * Open or close the horizontal walls x1..x2 of row y, a word at a time.
+     */
+    public void setHorizontalWallsOpen(final int y, final int x1, final int x2, final boolean open) {
+        for (int word = x1 >>> 6; word <= x2 >>> 6; word++) {
+            setBits(horizontalWalls, y * wordsPerRow + word, rangeMask(word, x1, x2 + 1), open);
+        }
+    }
+
+    /**
+     * Open or close the vertical walls y1..y2 of column x.
+     */
+    public void setVerticalWallsOpen(final int x, final int y1, final int y2, final boolean open) {
+        for (int y = y1; y <= y2; y++) {
+            setBit(verticalWalls, y * wordsPerRow + (x >>> 6), x, open);
+        }
+    }
+
+    /**
+     * Open or close the walls between the squares of a rectangle, a word at a
+     * time. The walls around the rectangle are left alone.
+     */
+    public void setWallsInsideRectangleOpen(final int left, final int top, final int width, final int height,
+                                            final boolean open) {
+        for (int word = left >>> 6; word <= (left + width - 1) >>> 6; word++) {
+            final long horizontalMask = rangeMask(word, left, left + width);
+            final long verticalMask = rangeMask(word, left + 1, left + width);
+            for (int y = top; y < top + height; y++) {
+                if (y > top) {
+                    setBits(horizontalWalls, y * wordsPerRow + word, horizontalMask, open);
+                }
+                setBits(verticalWalls, y * wordsPerRow + word, verticalMask, open);
+            }
+        }
+    }
+
+    /**
+     * Open or close every wall, including the border.
+     */
+    public void setAllWallsOpen(final boolean open) {
+        if (!open) {
+            clear();
+            return;
+        }
+        for (int word = 0; word < wordsPerRow; word++) {
+            final long horizontalMask = rangeMask(word, 0, size.width);
+            final long verticalMask = rangeMask(word, 0, size.width + 1);
+            for (int y = 0; y <= size.height; y++) {
+                horizontalWalls[y * wordsPerRow + word] = horizontalMask;
+                if (y < size.height) {
+                    verticalWalls[y * wordsPerRow + word] = verticalMask;
+                }
+            }
+        }
+    }
+
+    private static void setBits(final long[] plane, final int word, final long mask, final boolean open) {
+        if (open) {
+            plane[word] |= mask;
+        } else {
+            plane[word] &= ~mask;
+        }
+    }
+
+    /**
+     * @return a mask with the bits of the squares of a row that fall in word.
+     */
+    public long getSquareMask(final int word) {
+        return rangeMask(word, 0, size.width);
+    }
+
+    /**
+     * @return a mask with the bits from..toExclusive that fall in word.
+     */
+    public static long rangeMask(final int word, final int from, final int toExclusive) {
+        final int first = Math.max(from - word * 64, 0);
+        final int end = Math.min(toExclusive - word * 64, 64);
+        if (first >= end) {
+            return 0;
+        }
+        final long upTo = end == 64 ? -1L : (1L << end) - 1;
+        return upTo & (-1L << first);
+    }
+
+    /**
+     * Close all walls.
+     */
+    public void clear() {
+        Arrays.fill(horizontalWalls, 0);
+        Arrays.fill(verticalWalls, 0);
+    }
+
+    /**
+     * @return new wall planes with the same walls open.
+     */
+    public WallPlanes copy() {
+        final WallPlanes copy = new WallPlanes(size);
+        System.arraycopy(horizontalWalls, 0, copy.horizontalWalls, 0, horizontalWalls.length);
+        System.arraycopy(verticalWalls, 0, copy.verticalWalls, 0, verticalWalls.length);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof WallPlanes)) {
+            return false;
+        }
+        final WallPlanes other = (WallPlanes) obj;
+        return other.size.width == size.width && other.size.height == size.height
+                && Arrays.equals(other.horizontalWalls, horizontalWalls)
+                && Arrays.equals(other.verticalWalls, verticalWalls);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(horizontalWalls) * 31 + Arrays.hashCode(verticalWalls);
+    }
+}
@@ -0,0 +1,171 @@
+package com.laamella.amazingmazes.mazemodel.grid.implementation;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.State;
+import com.laamella.amazingmazes.mazemodel.State.ObservableObjectSetState;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
+/**
+ * Stores the PASSAGE state of walls in {@link WallPlanes}. All other states
+ * are kept in state objects that are only created when needed. For walls,
+ * these live in a map keyed by wall index, so every state handed out for the
+ * same wall sees the same states.
+ */
+public class WallPlanesStateStorage implements GridStateStorage {
+    private final WallPlanes wallPlanes;
+    private final ObservableObjectSetState[] squareStates;
+    private final Map<Integer, ObservableObjectSetState> otherWallStates = new HashMap<>();
+
+    public WallPlanesStateStorage(final WallPlanes wallPlanes) {
+        this.wallPlanes = wallPlanes;
+        this.squareStates = new ObservableObjectSetState[wallPlanes.getSize().area];
+    }
+
+    public WallPlanes getWallPlanes() {
+        return wallPlanes;
+    }
+
+    /**
+     * Closes all walls and removes every other state, keeping the square state
+     * objects that were handed out, so a grid on top of this storage can be
+     * used for a new maze.
+     */
+    public void reset() {
+        wallPlanes.clear();
+        for (final ObservableObjectSetState squareState : squareStates) {
+            if (squareState != null) {
+                squareState.clear();
+            }
+        }
+        otherWallStates.clear();
+    }
+
+    @Override
+    public State getSquareState(final Position position) {
+        return getSquareState(position.x, position.y);
+    }
+
+    @Override
+    public State getSquareState(final int x, final int y) {
+        final int index = x + y * getSize().width;
+        if (squareStates[index] == null) {
+            squareStates[index] = new ObservableObjectSetState();
+        }
+        return squareStates[index];
+    }
+
+    @Override
+    public State getWallState(final Position position, final boolean horizontal) {
+        return new WallState(position.x, position.y, horizontal);
+    }
+
+    @Override
+    public State getWallState(final int x, final int y, final boolean horizontal) {
+        return new WallState(x, y, horizontal);
+    }
+
+    @Override
+    public Size getSize() {
+        return wallPlanes.getSize();
+    }
+
+    @Override
+    public void setHorizontalWallsOpened(final int y, final int x1, final int x2, final boolean opened) {
+        wallPlanes.setHorizontalWallsOpen(y, x1, x2, opened);
+    }
+
+    @Override
+    public void setVerticalWallsOpened(final int x, final int y1, final int y2, final boolean opened) {
+        wallPlanes.setVerticalWallsOpen(x, y1, y2, opened);
+    }
+
+    @Override
+    public void setAllWallsOpened(final boolean opened) {
+        wallPlanes.setAllWallsOpen(opened);
+    }
+
+    @Override
+    public void setWallsInsideRectangleOpened(final Position topLeft, final Size size, final boolean opened) {
+        wallPlanes.setWallsInsideRectangleOpen(topLeft.x, topLeft.y, size.width, size.height, opened);
+    }
+
+    /**
+     * A view on the state of one wall. It keeps nothing itself, so any number
+     * of them can exist for the same wall.
+     */
+    private class WallState implements State {
+        private final int x;
+        private final int y;
+        private final boolean horizontal;
+        private final int index;
+
+        WallState(final int x, final int y, final boolean horizontal) {
+            this.x = x;
+            this.y = y;
+            this.horizontal = horizontal;
+            this.index = ((y * (getSize().width + 1)) + x) * 2 + (horizontal ? 1 : 0);
+        }
+
+        @Override
+        public boolean hasState(final Object state) {
+            if (state == PASSAGE) {
+                if (horizontal) {
+                    return wallPlanes.isHorizontalWallOpen(x, y);
+                }
+                return wallPlanes.isVerticalWallOpen(x, y);
+            }
+            final ObservableObjectSetState otherStates = otherWallStates.get(index);
+            return otherStates != null && otherStates.hasState(state);
+        }
+
+        @Override
+        public void setState(final Object newState, final boolean mustBeSet) {
+            if (newState == PASSAGE) {
+                if (horizontal) {
+                    wallPlanes.setHorizontalWallOpen(x, y, mustBeSet);
+                } else {
+                    wallPlanes.setVerticalWallOpen(x, y, mustBeSet);
+                }
+                return;
+            }
+            final ObservableObjectSetState otherStates = otherWallStates.get(index);
+            if (otherStates == null) {
+                if (mustBeSet) {
+                    createOtherStates().setState(newState, true);
+                }
+                return;
+            }
+            otherStates.setState(newState, mustBeSet);
+        }
+
+        @Override
+        public Integer getState(final Object state) {
+            if (state == PASSAGE) {
+                return null;
+            }
+            final ObservableObjectSetState otherStates = otherWallStates.get(index);
+            return otherStates == null ? null : otherStates.getState(state);
+        }
+
+        @Override
+        public void setState(final Object state, final int value) {
+            if (state == PASSAGE) {
+                setState(state, true);
+                return;
+            }
+            final ObservableObjectSetState otherStates = otherWallStates.get(index);
+            (otherStates == null ? createOtherStates() : otherStates).setState(state, value);
+        }
+
+        private ObservableObjectSetState createOtherStates() {
+            final ObservableObjectSetState otherStates = new ObservableObjectSetState();
+            otherWallStates.put(index, otherStates);
+            return otherStates;
+        }
+    }
+}
@@ -3,6 +3,33 @@ package com.laamella.amazingmazes.mazemodel.matrix;
 import com.laamella.amazingmazes.mazemodel.Position;
 
 public class ArrayUtilities {
+    /**
+     * Gets the coordinates of a cell, without a Position object for every
+     * cell.
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+        void visit(int x, int y);
+    }
+
+    /**
+     * Visits x 0..width-1, y 0..height-1 in reading order.
+     */
+    public static void visitCells(final int width, final int height, final CellVisitor visitor) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                visitor.visit(x, y);
+            }
+        }
+    }
+
+    /**
+     * Visits every cell of an array that is indexed [x][y].
+     */
+    public static <T> void visitCells(final T[][] array, final CellVisitor visitor) {
+        visitCells(array.length, array[0].length, visitor);
+    }
+
     public interface Visitor2dArray {
         void visit(Position position);
     }
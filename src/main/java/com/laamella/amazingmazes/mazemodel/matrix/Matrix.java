@@ -8,6 +8,13 @@ public interface Matrix<T> {
 
     T get(Position position);
 
+    /**
+     * The same as get(Position), without needing a Position object.
+     */
+    default T get(final int x, final int y) {
+        return get(new Position(x, y));
+    }
+
     Size getSize();
 
     class UtilityWrapper<T> implements Matrix<T> {
@@ -25,6 +32,30 @@ public interface Matrix<T> {
             void startRow();
         }
 
+        /**
+         * Like a MatrixVisitor, but gets the coordinates instead of a
+         * Position.
+         */
+        @FunctionalInterface
+        public interface CellVisitor<T> {
+            void visit(int x, int y, T value);
+        }
+
+        public void visitAllCells(final CellVisitor<T> visitor) {
+            for (int y = 0; y < delegateMatrix.getSize().height; y++) {
+                visitRow(y, 0, delegateMatrix.getSize().width - 1, visitor);
+            }
+        }
+
+        /**
+         * Visits cells x1..x2 of row y, left to right.
+         */
+        public void visitRow(final int y, final int x1, final int x2, final CellVisitor<T> visitor) {
+            for (int x = x1; x <= x2; x++) {
+                visitor.visit(x, y, delegateMatrix.get(x, y));
+            }
+        }
+
         public void visitAllSquares(final MatrixVisitor<T> visitor) {
             for (int y = 0; y < delegateMatrix.getSize().height; y++) {
                 visitor.startRow();
@@ -41,6 +72,11 @@ public interface Matrix<T> {
             return delegateMatrix.get(position);
         }
 
+        @Override
+        public T get(final int x, final int y) {
+            return delegateMatrix.get(x, y);
+        }
+
         @Override
         public Size getSize() {
             return delegateMatrix.getSize();
@@ -0,0 +1,138 @@
+package com.laamella.amazingmazes.mazemodel.matrix.implementation;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.State;
+import com.laamella.amazingmazes.mazemodel.matrix.Matrix;
+
+import java.util.Arrays;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
+/**
+ * A matrix of bits, stored row by row in one long array. Every row starts on a
+ * new word, so rows can be copied as words.
+ * <p>
+ * The int accessors don't check their coordinates beyond what the array does.
+ */
+public class BitMatrix implements Matrix<Boolean> {
+    private final Size size;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    public BitMatrix(final Size size) {
+        this.size = size;
+        this.wordsPerRow = (size.width + 63) >>> 6;
+        this.words = new long[wordsPerRow * size.height];
+    }
+
+    /**
+     * @return a bit matrix with the passages of the matrix set.
+     */
+    public static BitMatrix passagesOf(final Matrix<? extends State> matrix) {
+        final BitMatrix passages = new BitMatrix(matrix.getSize());
+        for (int y = 0; y < passages.size.height; y++) {
+            for (int x = 0; x < passages.size.width; x++) {
+                if (matrix.get(x, y).hasState(PASSAGE)) {
+                    passages.set(x, y, true);
+                }
+            }
+        }
+        return passages;
+    }
+
+    /**
+     * Makes the set bits passages in the matrix, and the others not. Only
+     * squares that change are touched.
+     */
+    public void writePassagesTo(final Matrix<? extends State> matrix) {
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final State state = matrix.get(x, y);
+                final boolean passage = getBit(x, y);
+                if (state.hasState(PASSAGE) != passage) {
+                    state.setState(PASSAGE, passage);
+                }
+            }
+        }
+    }
+
+    public boolean getBit(final int x, final int y) {
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public void set(final int x, final int y, final boolean value) {
+        final int index = y * wordsPerRow + (x >>> 6);
+        if (value) {
+            words[index] |= 1L << x;
+        } else {
+            words[index] &= ~(1L << x);
+        }
+    }
+
+    @Override
+    public Boolean get(final Position position) {
+        return getBit(position.x, position.y);
+    }
+
+    @Override
+    public Boolean get(final int x, final int y) {
+        return getBit(x, y);
+    }
+
+    @Override
+    public void set(final Position position, final Boolean value) {
+        set(position.x, position.y, value.booleanValue());
+    }
+
+    @Override
+    public Size getSize() {
+        return size;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Copies row y into the first getWordsPerRow() words of the target. Bit x of
+     * the row is bit x % 64 of word x / 64.
+     */
+    public void getRow(final int y, final long[] target) {
+        System.arraycopy(words, y * wordsPerRow, target, 0, wordsPerRow);
+    }
+
+    public void setRow(final int y, final long[] source) {
+        System.arraycopy(source, 0, words, y * wordsPerRow, wordsPerRow);
+    }
+
+    public void copyRow(final int sourceY, final int targetY) {
+        System.arraycopy(words, sourceY * wordsPerRow, words, targetY * wordsPerRow, wordsPerRow);
+    }
+
+    /**
+     * Copies all bits of a matrix of the same size.
+     */
+    public void setAll(final BitMatrix source) {
+        if (source.size.width != size.width || source.size.height != size.height) {
+            throw new IllegalArgumentException("Can't copy a " + source.size.width + "x" + source.size.height
+                    + " matrix into a " + size.width + "x" + size.height + " matrix.");
+        }
+        System.arraycopy(source.words, 0, words, 0, words.length);
+    }
+
+    public void fill(final boolean value) {
+        if (!value) {
+            Arrays.fill(words, 0L);
+            return;
+        }
+        Arrays.fill(words, -1L);
+        // Keep the bits past the end of every row clear.
+        final int usedBits = size.width & 63;
+        if (usedBits != 0) {
+            for (int y = 0; y < size.height; y++) {
+                words[(y + 1) * wordsPerRow - 1] = (1L << usedBits) - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.laamella.amazingmazes.mazemodel.matrix.implementation;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.matrix.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * A matrix of bytes, stored row by row in one array.
+ * <p>
+ * The int accessors don't check their coordinates beyond what the array does.
+ */
+public class ByteMatrix implements Matrix<Byte> {
+    private final Size size;
+    private final byte[] values;
+
+    public ByteMatrix(final Size size) {
+        this.size = size;
+        this.values = new byte[size.width * size.height];
+    }
+
+    public byte getByte(final int x, final int y) {
+        return values[y * size.width + x];
+    }
+
+    public void set(final int x, final int y, final byte value) {
+        values[y * size.width + x] = value;
+    }
+
+    @Override
+    public Byte get(final Position position) {
+        return getByte(position.x, position.y);
+    }
+
+    @Override
+    public Byte get(final int x, final int y) {
+        return getByte(x, y);
+    }
+
+    @Override
+    public void set(final Position position, final Byte value) {
+        set(position.x, position.y, value.byteValue());
+    }
+
+    @Override
+    public Size getSize() {
+        return size;
+    }
+
+    /**
+     * Copies row y into the first width bytes of the target.
+     */
+    public void getRow(final int y, final byte[] target) {
+        System.arraycopy(values, y * size.width, target, 0, size.width);
+    }
+
+    public void setRow(final int y, final byte[] source) {
+        System.arraycopy(source, 0, values, y * size.width, size.width);
+    }
+
+    public void copyRow(final int sourceY, final int targetY) {
+        System.arraycopy(values, sourceY * size.width, values, targetY * size.width, size.width);
+    }
+
+    public void fill(final byte value) {
+        Arrays.fill(values, value);
+    }
+}
@@ -0,0 +1,69 @@
+package com.laamella.amazingmazes.mazemodel.matrix.implementation;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.matrix.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * A matrix of ints, stored row by row in one array.
+ * <p>
+ * The int accessors don't check their coordinates beyond what the array does.
+ */
+public class IntMatrix implements Matrix<Integer> {
+    private final Size size;
+    private final int[] values;
+
+    public IntMatrix(final Size size) {
+        this.size = size;
+        this.values = new int[size.width * size.height];
+    }
+
+    public int getInt(final int x, final int y) {
+        return values[y * size.width + x];
+    }
+
+    public void set(final int x, final int y, final int value) {
+        values[y * size.width + x] = value;
+    }
+
+    @Override
+    public Integer get(final Position position) {
+        return getInt(position.x, position.y);
+    }
+
+    @Override
+    public Integer get(final int x, final int y) {
+        return getInt(x, y);
+    }
+
+    @Override
+    public void set(final Position position, final Integer value) {
+        set(position.x, position.y, value.intValue());
+    }
+
+    @Override
+    public Size getSize() {
+        return size;
+    }
+
+    /**
+     * Copies row y into the first width ints of the target.
+     */
+    public void getRow(final int y, final int[] target) {
+        System.arraycopy(values, y * size.width, target, 0, size.width);
+    }
+
+    public void setRow(final int y, final int[] source) {
+        System.arraycopy(source, 0, values, y * size.width, size.width);
+    }
+
+    public void copyRow(final int sourceY, final int targetY) {
+        System.arraycopy(values, sourceY * size.width, values, targetY * size.width, size.width);
+    }
+
+    public void fill(final int value) {
+        Arrays.fill(values, value);
+    }
+}
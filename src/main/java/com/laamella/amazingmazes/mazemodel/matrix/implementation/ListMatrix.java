@@ -23,19 +23,24 @@ public abstract class ListMatrix<T> implements Matrix<T> {
 
     @Override
     public T get(final Position position) {
-        if (position.x >= size.width) {
-            throw new IndexOutOfBoundsException("x " + position.x + " >= " + size.width);
+        return get(position.x, position.y);
+    }
+
+    @Override
+    public T get(final int x, final int y) {
+        if (x >= size.width) {
+            throw new IndexOutOfBoundsException("x " + x + " >= " + size.width);
         }
-        if (position.y >= size.height) {
-            throw new IndexOutOfBoundsException("y " + position.y + " >= " + size.height);
+        if (y >= size.height) {
+            throw new IndexOutOfBoundsException("y " + y + " >= " + size.height);
         }
-        if (position.x < 0) {
-            throw new IndexOutOfBoundsException("x " + position.x + " < 0");
+        if (x < 0) {
+            throw new IndexOutOfBoundsException("x " + x + " < 0");
         }
-        if (position.y < 0) {
-            throw new IndexOutOfBoundsException("y " + position.y + " < 0");
+        if (y < 0) {
+            throw new IndexOutOfBoundsException("y " + y + " < 0");
         }
-        return matrix.get(position.x + position.y * size.width);
+        return matrix.get(x + y * size.width);
     }
 
     @Override
@@ -33,6 +33,11 @@ public class StateMatrix extends Observable implements Observer, Matrix<Observab
         return matrix.get(position);
     }
 
+    @Override
+    public ObservableObjectSetState get(final int x, final int y) {
+        return matrix.get(x, y);
+    }
+
     @Override
     public Size getSize() {
         return matrix.getSize();
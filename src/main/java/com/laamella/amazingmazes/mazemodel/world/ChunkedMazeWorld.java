@@ -0,0 +1,464 @@
+package com.laamella.amazingmazes.mazemodel.world;
+
+import com.laamella.amazingmazes.generators.GridMazeGenerator;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.batch.GridPool;
+import com.laamella.amazingmazes.generators.batch.PooledGrid;
+import com.laamella.amazingmazes.mazemodel.PackedPosition;
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.State;
+import com.laamella.amazingmazes.mazemodel.graph.Edge;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.Vertex;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+import com.laamella.amazingmazes.mazemodel.grid.Wall;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
+/**
+ * A maze without borders. The plane is cut into square chunks, and a chunk is
+ * only generated when one of its squares or walls is looked at. Only the most
+ * recently used chunks are kept; a dropped chunk is generated again when it is
+ * needed, and comes out the same, since it is generated with a seed derived
+ * from the world seed and its chunk coordinates.
+ * <p>
+ * Every chunk is a maze on its own. It owns the seam above it and the seam to
+ * the left of it, and opens exactly one door in each, at a place picked with
+ * its own seed. Since every chunk is connected to all four of its neighbours,
+ * every square can reach every other square. The maze does have loops, but
+ * only ones that go around whole chunks.
+ * <p>
+ * Coordinates can be any int, including negative ones. Squares and walls are
+ * made when asked for, and are equal when they are at the same place. Like
+ * with a SubGrid, they keep their world position. Their graph is the window
+ * they were found through; squares and walls asked from the world itself
+ * belong to the window on their chunk.
+ */
+public class ChunkedMazeWorld implements MazeWorld {
+    /**
+     * Makes a generator for one chunk.
+     */
+    public interface ChunkGeneratorFactory {
+        GridMazeGenerator create(Randomizer randomizer);
+    }
+
+    private final long worldSeed;
+    private final int chunkSize;
+    private final ChunkGeneratorFactory generatorFactory;
+    private final GridPool gridPool = new GridPool();
+    private final Map<Long, MazeChunk> chunks;
+    private long generatedChunkCount = 0;
+
+    /**
+     * @param chunkSize the width and height of a chunk, in squares.
+     * @param maximumChunks how many chunks to keep at most. Should cover at
+     * least what is visible at once.
+     */
+    public ChunkedMazeWorld(final long worldSeed, final int chunkSize, final int maximumChunks,
+                            final ChunkGeneratorFactory generatorFactory) {
+        if (chunkSize < 1 || maximumChunks < 1) {
+            throw new IllegalArgumentException("Chunk size and maximum chunks must be at least 1.");
+        }
+        this.worldSeed = worldSeed;
+        this.chunkSize = chunkSize;
+        this.generatorFactory = generatorFactory;
+        this.chunks = new LinkedHashMap<Long, MazeChunk>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, MazeChunk> eldest) {
+                return size() > maximumChunks;
+            }
+        };
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the chunk at chunk coordinates chunkX,chunkY, which covers
+     * squares chunkX*chunkSize,chunkY*chunkSize and on.
+     */
+    public MazeChunk getChunk(final int chunkX, final int chunkY) {
+        final long key = PackedPosition.pack(chunkX, chunkY);
+        synchronized (chunks) {
+            final MazeChunk chunk = chunks.get(key);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        // Generated outside the lock; if two threads race, they make the same chunk
+        final MazeChunk chunk = generateChunk(chunkX, chunkY, key);
+        synchronized (chunks) {
+            final MazeChunk other = chunks.get(key);
+            if (other != null) {
+                return other;
+            }
+            chunks.put(key, chunk);
+            generatedChunkCount++;
+            return chunk;
+        }
+    }
+
+    private MazeChunk generateChunk(final int chunkX, final int chunkY, final long key) {
+        final long chunkSeed = Randomizer.Default.deriveSeed(worldSeed, key);
+        final PooledGrid grid = gridPool.acquire(new Size(chunkSize, chunkSize));
+        final WallPlanes walls;
+        try {
+            generatorFactory.create(new Randomizer.Default(chunkSeed)).generateMaze(grid.getGrid());
+            walls = grid.getWallPlanes().copy();
+        } finally {
+            gridPool.release(grid);
+        }
+        walls.setHorizontalWallsOpen(0, 0, chunkSize - 1, false);
+        walls.setHorizontalWallsOpen(chunkSize, 0, chunkSize - 1, false);
+        walls.setVerticalWallsOpen(0, 0, chunkSize - 1, false);
+        walls.setVerticalWallsOpen(chunkSize, 0, chunkSize - 1, false);
+        final Randomizer doors = new Randomizer.Default(Randomizer.Default.deriveSeed(chunkSeed, 0));
+        walls.setHorizontalWallOpen(doors.random(chunkSize), 0, true);
+        walls.setVerticalWallOpen(0, doors.random(chunkSize), true);
+        return new MazeChunk(chunkX, chunkY, walls);
+    }
+
+    /**
+     * @return how many chunks are in memory now.
+     */
+    public int getChunkCount() {
+        synchronized (chunks) {
+            return chunks.size();
+        }
+    }
+
+    /**
+     * @return how many times a chunk was generated, including the ones that
+     * were generated again after being dropped.
+     */
+    public long getGeneratedChunkCount() {
+        synchronized (chunks) {
+            return generatedChunkCount;
+        }
+    }
+
+    @Override
+    public Grid getWindow(final Position topLeft, final Size size) {
+        return new Window(topLeft, size);
+    }
+
+    @Override
+    public Square getSquare(final int x, final int y) {
+        return new WorldSquare(chunkWindow(x, y), x, y);
+    }
+
+    @Override
+    public Wall getWall(final int x, final int y, final boolean horizontal) {
+        return new WorldWall(chunkWindow(x, y), x, y, horizontal);
+    }
+
+    private Window chunkWindow(final int x, final int y) {
+        final Position chunkTopLeft = new Position(Math.floorDiv(x, chunkSize) * chunkSize,
+                Math.floorDiv(y, chunkSize) * chunkSize);
+        return new Window(chunkTopLeft, new Size(chunkSize, chunkSize));
+    }
+
+    private MazeChunk chunkAt(final int x, final int y) {
+        return getChunk(Math.floorDiv(x, chunkSize), Math.floorDiv(y, chunkSize));
+    }
+
+    /**
+     * A rectangle of the world. Its vertices are the squares inside it, and
+     * its edges the walls between them.
+     */
+    private class Window implements Grid {
+        private final Position topLeft;
+        private final Size size;
+
+        Window(final Position topLeft, final Size size) {
+            this.topLeft = topLeft;
+            this.size = size;
+        }
+
+        @Override
+        public Square getSquare(final Position position) {
+            return getSquare(position.x, position.y);
+        }
+
+        @Override
+        public Square getSquare(final int x, final int y) {
+            return new WorldSquare(this, x + topLeft.x, y + topLeft.y);
+        }
+
+        @Override
+        public Wall getWall(final int x, final int y, final boolean horizontal) {
+            return new WorldWall(this, x + topLeft.x, y + topLeft.y, horizontal);
+        }
+
+        @Override
+        public Size getSize() {
+            return size;
+        }
+
+        @Override
+        public Set<Vertex> getVertices() {
+            final Set<Vertex> vertices = new HashSet<>(size.area * 2);
+            for (int y = 0; y < size.height; y++) {
+                for (int x = 0; x < size.width; x++) {
+                    vertices.add(getSquare(x, y));
+                }
+            }
+            return vertices;
+        }
+
+        @Override
+        public Set<Edge> getEdges() {
+            final Set<Edge> edges = new HashSet<>(size.area * 4);
+            for (int y = 0; y < size.height; y++) {
+                for (int x = 0; x < size.width; x++) {
+                    if (y > 0) {
+                        edges.add(getWall(x, y, true));
+                    }
+                    if (x > 0) {
+                        edges.add(getWall(x, y, false));
+                    }
+                }
+            }
+            return edges;
+        }
+    }
+
+    private class WorldSquare implements Square {
+        private final Window window;
+        private final int x;
+        private final int y;
+
+        WorldSquare(final Window window, final int x, final int y) {
+            this.window = window;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public Wall getWall(final Direction direction) {
+            switch (direction) {
+                case UP:
+                    return new WorldWall(window, x, y, true);
+                case DOWN:
+                    return new WorldWall(window, x, y + 1, true);
+                case LEFT:
+                    return new WorldWall(window, x, y, false);
+                default:
+                    return new WorldWall(window, x + 1, y, false);
+            }
+        }
+
+        @Override
+        public Square getSquare(final Direction direction) {
+            final Position move = direction.getMove();
+            return new WorldSquare(window, x + move.x, y + move.y);
+        }
+
+        @Override
+        public Position getPosition() {
+            return new Position(x, y);
+        }
+
+        @Override
+        public Set<Edge> getEdges() {
+            final Set<Edge> edges = new HashSet<>(8);
+            for (final Direction direction : Direction.values()) {
+                edges.add(getWall(direction));
+            }
+            return edges;
+        }
+
+        @Override
+        public Graph getGraph() {
+            return window;
+        }
+
+        private State states(final boolean create) {
+            return chunkAt(x, y).getSquareState(Math.floorMod(x, chunkSize), Math.floorMod(y, chunkSize), create);
+        }
+
+        @Override
+        public boolean hasState(final Object state) {
+            final State states = states(false);
+            return states != null && states.hasState(state);
+        }
+
+        @Override
+        public void setState(final Object newState, final boolean mustBeSet) {
+            states(true).setState(newState, mustBeSet);
+        }
+
+        @Override
+        public Integer getState(final Object state) {
+            final State states = states(false);
+            return states == null ? null : states.getState(state);
+        }
+
+        @Override
+        public void setState(final Object state, final int value) {
+            states(true).setState(state, value);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof WorldSquare)) {
+                return false;
+            }
+            final WorldSquare other = (WorldSquare) obj;
+            return other.x == x && other.y == y && other.world() == world();
+        }
+
+        @Override
+        public int hashCode() {
+            return x * 31 + y;
+        }
+
+        private ChunkedMazeWorld world() {
+            return ChunkedMazeWorld.this;
+        }
+
+        @Override
+        public String toString() {
+            return "[Square " + x + "," + y + "]";
+        }
+    }
+
+    /**
+     * Wall x,y is numbered like in {@link Grid#getWall(int, int, boolean)}.
+     */
+    private class WorldWall implements Wall {
+        private final Window window;
+        private final int x;
+        private final int y;
+        private final boolean horizontal;
+
+        WorldWall(final Window window, final int x, final int y, final boolean horizontal) {
+            this.window = window;
+            this.x = x;
+            this.y = y;
+            this.horizontal = horizontal;
+        }
+
+        private MazeChunk chunk() {
+            return chunkAt(x, y);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return chunk().isWallOpen(Math.floorMod(x, chunkSize), Math.floorMod(y, chunkSize), horizontal);
+        }
+
+        /**
+         * Changes the chunk in memory; the change is lost when the chunk is
+         * dropped.
+         */
+        @Override
+        public void setOpened(final boolean opened) {
+            chunk().setWallOpen(Math.floorMod(x, chunkSize), Math.floorMod(y, chunkSize), horizontal, opened);
+        }
+
+        @Override
+        public void open() {
+            setOpened(true);
+        }
+
+        @Override
+        public void close() {
+            setOpened(false);
+        }
+
+        @Override
+        public Vertex getVertexA() {
+            return horizontal ? new WorldSquare(window, x, y - 1) : new WorldSquare(window, x - 1, y);
+        }
+
+        @Override
+        public Vertex getVertexB() {
+            return new WorldSquare(window, x, y);
+        }
+
+        @Override
+        public Vertex travel(final Vertex sourceVertex) {
+            final Vertex vertexA = getVertexA();
+            final Vertex vertexB = getVertexB();
+            if (sourceVertex.equals(vertexA)) {
+                return vertexB;
+            }
+            if (sourceVertex.equals(vertexB)) {
+                return vertexA;
+            }
+            throw new IllegalArgumentException("Can't travel, edge does not belong to vertex.");
+        }
+
+        @Override
+        public Graph getGraph() {
+            return window;
+        }
+
+        private State states(final boolean create) {
+            return chunk().getWallState(Math.floorMod(x, chunkSize), Math.floorMod(y, chunkSize), horizontal, create);
+        }
+
+        @Override
+        public boolean hasState(final Object state) {
+            if (state == PASSAGE) {
+                return isOpen();
+            }
+            final State states = states(false);
+            return states != null && states.hasState(state);
+        }
+
+        @Override
+        public void setState(final Object newState, final boolean mustBeSet) {
+            if (newState == PASSAGE) {
+                setOpened(mustBeSet);
+            } else {
+                states(true).setState(newState, mustBeSet);
+            }
+        }
+
+        @Override
+        public Integer getState(final Object state) {
+            final State states = states(false);
+            return states == null ? null : states.getState(state);
+        }
+
+        @Override
+        public void setState(final Object state, final int value) {
+            states(true).setState(state, value);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof WorldWall)) {
+                return false;
+            }
+            final WorldWall other = (WorldWall) obj;
+            return other.x == x && other.y == y && other.horizontal == horizontal && other.world() == world();
+        }
+
+        private ChunkedMazeWorld world() {
+            return ChunkedMazeWorld.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return (x * 31 + y) * 2 + (horizontal ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return "[Wall " + x + "," + y + (horizontal ? " horizontal]" : " vertical]");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.laamella.amazingmazes.mazemodel.world;
+
+import com.laamella.amazingmazes.mazemodel.State;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A square piece of a {@link ChunkedMazeWorld}. The walls are kept in
+ * {@link WallPlanes} with local coordinates. A chunk owns the walls above its
+ * top row and left of its left column; its bottom and right walls belong to
+ * the chunks below and to the right.
+ * <p>
+ * States other than being open are kept in maps, which are only filled when
+ * someone sets a state. They are lost when the chunk is dropped from the
+ * cache.
+ */
+public class MazeChunk {
+    private final int chunkX;
+    private final int chunkY;
+    private final WallPlanes walls;
+    private final Map<Integer, State> squareStates = new HashMap<>();
+    private final Map<Integer, State> wallStates = new HashMap<>();
+
+    public MazeChunk(final int chunkX, final int chunkY, final WallPlanes walls) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.walls = walls;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public WallPlanes getWalls() {
+        return walls;
+    }
+
+    synchronized boolean isWallOpen(final int x, final int y, final boolean horizontal) {
+        if (horizontal) {
+            return walls.isHorizontalWallOpen(x, y);
+        }
+        return walls.isVerticalWallOpen(x, y);
+    }
+
+    synchronized void setWallOpen(final int x, final int y, final boolean horizontal, final boolean open) {
+        if (horizontal) {
+            walls.setHorizontalWallOpen(x, y, open);
+        } else {
+            walls.setVerticalWallOpen(x, y, open);
+        }
+    }
+
+    /**
+     * @return the other states of square x,y, created when create is true and
+     * there are none yet, or else null.
+     */
+    synchronized State getSquareState(final int x, final int y, final boolean create) {
+        return getState(squareStates, y * walls.getSize().width + x, create);
+    }
+
+    synchronized State getWallState(final int x, final int y, final boolean horizontal, final boolean create) {
+        return getState(wallStates, (y * (walls.getSize().width + 1) + x) * 2 + (horizontal ? 1 : 0), create);
+    }
+
+    private static State getState(final Map<Integer, State> states, final int key, final boolean create) {
+        State state = states.get(key);
+        if (state == null && create) {
+            state = new State.ObservableObjectSetState();
+            states.put(key, state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,27 @@
+package com.laamella.amazingmazes.mazemodel.world;
+
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+import com.laamella.amazingmazes.mazemodel.grid.Wall;
+
+/**
+ * A maze without a size. It can't list its squares and walls, so it is not a
+ * {@link Grid}; it can only be asked for one square or wall at a time, or for
+ * a window on a part of it, which is a grid.
+ */
+public interface MazeWorld {
+    Square getSquare(int x, int y);
+
+    /**
+     * @return horizontal wall x,y (above square x,y) or vertical wall x,y (left
+     * of square x,y.)
+     */
+    Wall getWall(int x, int y, boolean horizontal);
+
+    /**
+     * @return a view on a rectangle of the world, with topLeft as 0,0.
+     */
+    Grid getWindow(Position topLeft, Size size);
+}
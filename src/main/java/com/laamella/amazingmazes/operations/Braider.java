@@ -0,0 +1,135 @@
+package com.laamella.amazingmazes.operations;
+
+import com.laamella.amazingmazes.generators.IntDeque;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Wall;
+
+/**
+ * Turns a maze into a braid maze, which has loops instead of dead ends, by
+ * opening a wall at the end of dead ends.
+ * <p>
+ * The passages of every square are counted once, and the dead ends are put in
+ * a queue in a random order. Every dead end is then opened towards a
+ * neighbour, preferably one that is a dead end too, because that removes two
+ * dead ends with one wall. A dead end that was already opened by a neighbour
+ * is skipped. This stops when the requested part of the dead ends is left, so
+ * the whole maze is looked at only once.
+ */
+public class Braider {
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private final Randomizer randomizer;
+    private final double deadEndsToKeep;
+
+    /**
+     * @param deadEndsToKeep the part of the dead ends that is left alone,
+     * from 0 for a full braid maze to 1 for no change at all.
+     */
+    public Braider(final Randomizer randomizer, final double deadEndsToKeep) {
+        if (deadEndsToKeep < 0 || deadEndsToKeep > 1) {
+            throw new IllegalArgumentException("The part of the dead ends to keep must be between 0 and 1.");
+        }
+        this.randomizer = randomizer;
+        this.deadEndsToKeep = deadEndsToKeep;
+    }
+
+    /**
+     * @return the amount of walls opened.
+     */
+    public int braid(final Grid grid) {
+        final Size size = grid.getSize();
+        final int[] passages = new int[size.area];
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final int square = y * size.width + x;
+                if (y > 0 && grid.getWall(x, y, true).isOpen()) {
+                    passages[square]++;
+                    passages[square - size.width]++;
+                }
+                if (x > 0 && grid.getWall(x, y, false).isOpen()) {
+                    passages[square]++;
+                    passages[square - 1]++;
+                }
+            }
+        }
+
+        final int[] deadEnds = new int[size.area];
+        int deadEndCount = 0;
+        for (int square = 0; square < size.area; square++) {
+            if (passages[square] == 1) {
+                deadEnds[deadEndCount++] = square;
+            }
+        }
+        final IntDeque queue = new IntDeque(size.area);
+        for (int i = deadEndCount - 1; i >= 0; i--) {
+            final int j = randomizer.random(i + 1);
+            queue.addLast(deadEnds[j]);
+            deadEnds[j] = deadEnds[i];
+        }
+
+        final int deadEndsLeft = (int) Math.round(deadEndCount * deadEndsToKeep);
+        final int[] candidates = new int[4];
+        int openedWalls = 0;
+        while (deadEndCount > deadEndsLeft && !queue.isEmpty()) {
+            final int square = queue.removeFirst();
+            if (passages[square] != 1) {
+                continue;
+            }
+            final int x = square % size.width;
+            final int y = square / size.width;
+            int candidateCount = 0;
+            boolean foundDeadEnd = false;
+            for (int direction = 0; direction < 4; direction++) {
+                final int nx = x + DX[direction];
+                final int ny = y + DY[direction];
+                if (nx < 0 || ny < 0 || nx >= size.width || ny >= size.height
+                        || getWall(grid, x, y, direction).isOpen()) {
+                    continue;
+                }
+                final boolean neighbourIsDeadEnd = passages[ny * size.width + nx] == 1;
+                if (neighbourIsDeadEnd && !foundDeadEnd) {
+                    foundDeadEnd = true;
+                    candidateCount = 0;
+                }
+                if (neighbourIsDeadEnd || !foundDeadEnd) {
+                    candidates[candidateCount++] = direction;
+                }
+            }
+            if (candidateCount == 0) {
+                continue;
+            }
+
+            final int direction = candidates[randomizer.random(candidateCount)];
+            final int neighbour = (y + DY[direction]) * size.width + x + DX[direction];
+            getWall(grid, x, y, direction).open();
+            openedWalls++;
+            passages[square]++;
+            deadEndCount--;
+            passages[neighbour]++;
+            if (passages[neighbour] == 2) {
+                deadEndCount--;
+            } else if (passages[neighbour] == 1) {
+                // It had no passages at all, and is a new dead end now
+                deadEndCount++;
+                queue.addLast(neighbour);
+            }
+        }
+        return openedWalls;
+    }
+
+    private static Wall getWall(final Grid grid, final int x, final int y, final int direction) {
+        switch (direction) {
+            case 0:
+                return grid.getWall(x, y, true);
+            case 1:
+                return grid.getWall(x, y + 1, true);
+            case 2:
+                return grid.getWall(x, y, false);
+            default:
+                return grid.getWall(x + 1, y, false);
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package com.laamella.amazingmazes.operations;
 
+import com.laamella.amazingmazes.generators.IntDisjointSets;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
+
+import java.util.Arrays;
+
 /**
  * This means to edit the Maze such that there are no passage sections that are
  * inaccessible from the rest of the Maze, by removing walls to connect such
@@ -9,7 +17,171 @@ package com.laamella.amazingmazes.operations;
  * filled cell. Remove a wall segment in the original Maze at that point, flood
  * the Maze at this new point, and repeat until every section is filled. This
  * utility is used in the creation of braid and template Mazes.
+ * <p>
+ * Instead of flooding again after every removed wall, this labels all sections
+ * at once: one scan in reading order puts every square in the same set as the
+ * squares above and left of it that it has a passage to. The walls between
+ * squares of different sections are then tried in a random order, and a wall
+ * is removed when the sections on both sides are not connected yet. That
+ * connects all sections by removing one wall less than there are sections, in
+ * time linear to the size of the maze.
+ * <p>
+ * Mazes in a {@link BitMatrix} are handled the same way, where the cells that
+ * are passages form sections, and a wall cell is turned into a passage when it
+ * touches two sections. Sections that are more than one wall cell apart stay
+ * apart. Note that the passages of
+ * {@link com.laamella.amazingmazes.generators.original.RecursiveBacktrackerMazeGeneratorForMatrices}
+ * are one section already; the parts it leaves inaccessible are solid wall.
  */
 public class IsolationRemover {
+    private final Randomizer randomizer;
+
+    public IsolationRemover(final Randomizer randomizer) {
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * @return the amount of walls removed.
+     */
+    public int removeIsolation(final Grid grid) {
+        final Size size = grid.getSize();
+        final IntDisjointSets sections = new IntDisjointSets(size.area);
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final int square = y * size.width + x;
+                if (y > 0 && grid.getWall(x, y, true).isOpen()) {
+                    sections.union(square, square - size.width);
+                }
+                if (x > 0 && grid.getWall(x, y, false).isOpen()) {
+                    sections.union(square, square - 1);
+                }
+            }
+        }
+        if (sections.getSetCount() <= 1) {
+            return 0;
+        }
+
+        // Walls between sections, as square * 2 + 1 for the wall above and
+        // square * 2 for the wall left of the square
+        int[] walls = new int[64];
+        int wallCount = 0;
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final int square = y * size.width + x;
+                if (wallCount + 2 > walls.length) {
+                    walls = Arrays.copyOf(walls, walls.length * 2);
+                }
+                if (y > 0 && !sections.inSameSet(square, square - size.width)) {
+                    walls[wallCount++] = square * 2 + 1;
+                }
+                if (x > 0 && !sections.inSameSet(square, square - 1)) {
+                    walls[wallCount++] = square * 2;
+                }
+            }
+        }
+        shuffle(walls, wallCount);
+
+        int removedWalls = 0;
+        for (int i = 0; i < wallCount && sections.getSetCount() > 1; i++) {
+            final int square = walls[i] >>> 1;
+            final boolean horizontal = (walls[i] & 1) != 0;
+            if (sections.union(square, horizontal ? square - size.width : square - 1)) {
+                grid.getWall(square % size.width, square / size.width, horizontal).open();
+                removedWalls++;
+            }
+        }
+        return removedWalls;
+    }
+
+    /**
+     * @return the amount of wall cells turned into passages.
+     */
+    public int removeIsolation(final BitMatrix matrix) {
+        final Size size = matrix.getSize();
+        final IntDisjointSets sections = new IntDisjointSets(size.area);
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                if (matrix.getBit(x, y)) {
+                    final int cell = y * size.width + x;
+                    if (y > 0 && matrix.getBit(x, y - 1)) {
+                        sections.union(cell, cell - size.width);
+                    }
+                    if (x > 0 && matrix.getBit(x - 1, y)) {
+                        sections.union(cell, cell - 1);
+                    }
+                }
+            }
+        }
+
+        // Wall cells between two passages of different sections
+        int[] bridges = new int[64];
+        int bridgeCount = 0;
+        final int[] neighbours = new int[4];
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                if (!matrix.getBit(x, y) && findPassagesAround(matrix, sections, x, y, neighbours) > 0) {
+                    if (bridgeCount == bridges.length) {
+                        bridges = Arrays.copyOf(bridges, bridges.length * 2);
+                    }
+                    bridges[bridgeCount++] = y * size.width + x;
+                }
+            }
+        }
+        shuffle(bridges, bridgeCount);
+
+        int removedWalls = 0;
+        for (int i = 0; i < bridgeCount; i++) {
+            final int x = bridges[i] % size.width;
+            final int y = bridges[i] / size.width;
+            final int neighbourCount = findPassagesAround(matrix, sections, x, y, neighbours);
+            if (neighbourCount > 0) {
+                matrix.set(x, y, true);
+                for (int n = 0; n < neighbourCount; n++) {
+                    sections.union(bridges[i], neighbours[n]);
+                }
+                removedWalls++;
+            }
+        }
+        return removedWalls;
+    }
+
+    /**
+     * Fills neighbours with the passage cells around x,y, one per section.
+     *
+     * @return how many there are, or 0 if they are all in one section.
+     */
+    private static int findPassagesAround(final BitMatrix matrix, final IntDisjointSets sections, final int x,
+                                          final int y, final int[] neighbours) {
+        int count = 0;
+        count = addIfNewSection(matrix, sections, x, y - 1, neighbours, count);
+        count = addIfNewSection(matrix, sections, x, y + 1, neighbours, count);
+        count = addIfNewSection(matrix, sections, x - 1, y, neighbours, count);
+        count = addIfNewSection(matrix, sections, x + 1, y, neighbours, count);
+        return count >= 2 ? count : 0;
+    }
+
+    private static int addIfNewSection(final BitMatrix matrix, final IntDisjointSets sections, final int x,
+                                       final int y, final int[] neighbours, final int count) {
+        final Size size = matrix.getSize();
+        if (x < 0 || y < 0 || x >= size.width || y >= size.height || !matrix.getBit(x, y)) {
+            return count;
+        }
+        final int cell = y * size.width + x;
+        for (int i = 0; i < count; i++) {
+            if (sections.inSameSet(neighbours[i], cell)) {
+                return count;
+            }
+        }
+        neighbours[count] = cell;
+        return count + 1;
+    }
 
+    private void shuffle(final int[] values, final int count) {
+        for (int i = count - 1; i > 0; i--) {
+            final int j = randomizer.random(i + 1);
+            final int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
 }
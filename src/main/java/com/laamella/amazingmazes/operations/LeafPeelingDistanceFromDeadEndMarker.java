@@ -0,0 +1,123 @@
+package com.laamella.amazingmazes.operations;
+
+import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+
+import static com.laamella.amazingmazes.operations.DistanceFromDeadEndMarker.DISTANCE_FROM_DEAD_END;
+
+/**
+ * Does what {@link DistanceFromDeadEndMarker} does, in time linear to the size
+ * of the maze: marks every vertex with the distance to the farthest dead end
+ * behind it.
+ * <p>
+ * Counts the passages of every vertex once, then peels off the dead ends from
+ * a queue. A vertex joins the queue when at most one of its passages leads to
+ * a vertex that isn't marked yet, and gets one more than the highest distance
+ * of its marked neighbours. Like the original, this gets stuck on loops: the
+ * vertices on and between loops are never marked.
+ * <p>
+ * The distances along the longest path grow towards the vertex that is
+ * marked last. The original peels from whichever side it scans first; this
+ * peels evenly from all sides, so in a perfect maze the highest distance is
+ * in the middle of the longest path.
+ */
+public class LeafPeelingDistanceFromDeadEndMarker {
+    private final boolean writeBack;
+
+    /**
+     * Writes the distances to DISTANCE_FROM_DEAD_END, like the original.
+     */
+    public LeafPeelingDistanceFromDeadEndMarker() {
+        this(true);
+    }
+
+    /**
+     * @param writeBack whether to write the distances to the
+     * DISTANCE_FROM_DEAD_END state of the vertices, or only return them.
+     */
+    public LeafPeelingDistanceFromDeadEndMarker(final boolean writeBack) {
+        this.writeBack = writeBack;
+    }
+
+    public static class Result {
+        /**
+         * The numbering of the vertices.
+         */
+        public final GraphIndex index;
+        /**
+         * The distance of every vertex by vertex id, or -1 for unmarked
+         * vertices.
+         */
+        public final int[] distances;
+        public final int unmarkedVertexCount;
+        public final boolean success;
+
+        private Result(final GraphIndex index, final int[] distances, final int unmarkedVertexCount) {
+            this.index = index;
+            this.distances = distances;
+            this.unmarkedVertexCount = unmarkedVertexCount;
+            this.success = unmarkedVertexCount == 0;
+        }
+    }
+
+    public Result execute(final Graph graph) {
+        final GraphIndex index = new GraphIndex(graph);
+        final int vertexCount = index.getVertexCount();
+        final boolean[] passages = new boolean[index.getEdgeCount()];
+        for (int edge = 0; edge < passages.length; edge++) {
+            passages[edge] = index.getEdge(edge).hasState(MazeDefinitionState.PASSAGE);
+        }
+
+        // Passages to vertices that are not marked yet
+        final int[] unmarkedExits = new int[vertexCount];
+        final int[] distances = new int[vertexCount];
+        final int[] queue = new int[vertexCount];
+        int tail = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                if (passages[index.getAdjacentEdge(i)]) {
+                    unmarkedExits[vertex]++;
+                }
+            }
+            distances[vertex] = -1;
+            if (unmarkedExits[vertex] < 2) {
+                queue[tail++] = vertex;
+            }
+        }
+
+        for (int head = 0; head < tail; head++) {
+            final int vertex = queue[head];
+            int distance = 0;
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                final int edge = index.getAdjacentEdge(i);
+                if (passages[edge]) {
+                    final int neighbour = index.travel(edge, vertex);
+                    if (distances[neighbour] >= 0) {
+                        distance = Math.max(distance, distances[neighbour] + 1);
+                    }
+                }
+            }
+            distances[vertex] = distance;
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                final int edge = index.getAdjacentEdge(i);
+                if (passages[edge]) {
+                    final int neighbour = index.travel(edge, vertex);
+                    // Joins the queue when its count drops below 2, so exactly once
+                    if (distances[neighbour] < 0 && --unmarkedExits[neighbour] == 1) {
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        if (writeBack) {
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                if (distances[vertex] >= 0) {
+                    index.getVertex(vertex).setState(DISTANCE_FROM_DEAD_END, distances[vertex]);
+                }
+            }
+        }
+        return new Result(index, distances, vertexCount - tail);
+    }
+}
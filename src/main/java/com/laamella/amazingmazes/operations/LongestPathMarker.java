@@ -0,0 +1,139 @@
+package com.laamella.amazingmazes.operations;
+
+import com.laamella.amazingmazes.generators.MazeGenerator;
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+import com.laamella.amazingmazes.mazemodel.graph.Vertex;
+
+import java.util.Arrays;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.*;
+
+/**
+ * Puts the entrance and the exit at the two ends of the longest path through
+ * the maze, which is what {@link MostDistantEntranceAndExitFinder} attempts.
+ * <p>
+ * Walks the passages breadth first from any vertex to find the vertex farthest
+ * away, and then again from there; the second walk ends at the other end of
+ * the longest path. In a perfect maze, which is a tree, this is exact, also
+ * when the ends may only be vertices marked POSSIBLE_EXIT. In a maze with
+ * loops it is a good guess, not always the longest path: the walks are
+ * repeated from the newest end for as long as the path gets longer.
+ * <p>
+ * Only the part of the maze that can be reached from the first vertex is
+ * looked at. Earlier entrances and exits are removed.
+ */
+public class LongestPathMarker implements Instrumented {
+    private static final int MAXIMUM_EXTRA_WALKS = 4;
+
+    private final boolean onlyPossibleExits;
+    private Instrumentation instrumentation = Instrumentation.NONE;
+
+    public LongestPathMarker() {
+        this(false);
+    }
+
+    /**
+     * @param onlyPossibleExits only put the entrance and exit on vertices
+     * marked POSSIBLE_EXIT, which are the border squares of a grid.
+     */
+    public LongestPathMarker(final boolean onlyPossibleExits) {
+        this.onlyPossibleExits = onlyPossibleExits;
+    }
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * @return the length of the path in passages, or -1 when there were no two
+     * places to put the entrance and exit.
+     */
+    public int mark(final Graph graph) {
+        final long indexStartTime = instrumentation.phaseStarted("index");
+        final GraphIndex index = new GraphIndex(graph);
+        instrumentation.phaseEnded("index", indexStartTime);
+        final int vertexCount = index.getVertexCount();
+
+        final boolean[] candidates = new boolean[vertexCount];
+        final boolean[] passages = new boolean[index.getEdgeCount()];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            final Vertex v = index.getVertex(vertex);
+            v.setState(ENTRANCE, false);
+            v.setState(EXIT, false);
+            candidates[vertex] = !onlyPossibleExits || v.hasState(MazeGenerator.POSSIBLE_EXIT);
+        }
+        for (int edge = 0; edge < passages.length; edge++) {
+            passages[edge] = index.getEdge(edge).hasState(PASSAGE);
+        }
+
+        if (vertexCount == 0) {
+            return -1;
+        }
+
+        final long startTime = instrumentation.phaseStarted("sweep");
+        final int[] distances = new int[vertexCount];
+        final int[] queue = new int[vertexCount];
+        int from = walk(index, passages, candidates, 0, distances, queue);
+        if (from < 0) {
+            instrumentation.phaseEnded("sweep", startTime);
+            return -1;
+        }
+        int to = walk(index, passages, candidates, from, distances, queue);
+        int length = to < 0 || to == from ? -1 : distances[to];
+        for (int i = 0; i < MAXIMUM_EXTRA_WALKS && length > 0; i++) {
+            final int further = walk(index, passages, candidates, to, distances, queue);
+            if (distances[further] <= length) {
+                break;
+            }
+            from = to;
+            to = further;
+            length = distances[further];
+        }
+        instrumentation.phaseEnded("sweep", startTime);
+        if (length < 0) {
+            return -1;
+        }
+        index.getVertex(from).setState(ENTRANCE, true);
+        index.getVertex(to).setState(EXIT, true);
+        return length;
+    }
+
+    /**
+     * Fills distances with the amount of passages from start to every vertex,
+     * or -1 for the ones that can't be reached.
+     *
+     * @param queue scratch space for as many vertices as there are.
+     * @return the farthest candidate, or -1 if none can be reached.
+     */
+    private int walk(final GraphIndex index, final boolean[] passages, final boolean[] candidates, final int start,
+                     final int[] distances, final int[] queue) {
+        Arrays.fill(distances, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        distances[start] = 0;
+        int farthest = candidates[start] ? start : -1;
+        while (head < tail) {
+            final int vertex = queue[head++];
+            if (candidates[vertex] && (farthest < 0 || distances[vertex] > distances[farthest])) {
+                farthest = vertex;
+            }
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                final int edge = index.getAdjacentEdge(i);
+                if (passages[edge]) {
+                    final int neighbour = index.travel(edge, vertex);
+                    if (distances[neighbour] < 0) {
+                        distances[neighbour] = distances[vertex] + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        instrumentation.cellsVisited(tail);
+        return farthest;
+    }
+}
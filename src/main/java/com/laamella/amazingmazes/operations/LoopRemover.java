@@ -1,5 +1,12 @@
 package com.laamella.amazingmazes.operations;
 
+import com.laamella.amazingmazes.generators.IntDisjointSets;
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.PASSAGE;
+
 /**
  * This means to edit the Maze such that there are no loops or detached walls
  * within it, every section of the Maze reachable from any other by at most one
@@ -12,7 +19,52 @@ package com.laamella.amazingmazes.operations;
  * point, and repeat until every section is filled. This utility is used in the
  * creation of template Mazes, and can be used to convert a braid Maze to a
  * perfect Maze that still looks similar to the original.
+ * <p>
+ * Flooding the walls needs a grid. This works on the passages instead, so it
+ * works on any graph: the passages are visited once, in a random order, while
+ * a disjoint set of vertices keeps track of what is connected. A passage
+ * between two vertices that are already connected closes a loop, so it is
+ * closed again. What is left is a spanning tree of every section, found in
+ * O(E α(V)). The passages are shuffled in the order {@link GraphIndex}
+ * numbers them, so for grids, wrapped or not, the result only depends on the
+ * seed of the randomizer. Other graphs give the same result for the same seed
+ * only when their vertex and edge sets are iterated in a stable order.
  */
 public class LoopRemover {
+    private final Randomizer randomizer;
+
+    public LoopRemover(final Randomizer randomizer) {
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * @return the amount of passages closed.
+     */
+    public int removeLoops(final Graph graph) {
+        final GraphIndex index = new GraphIndex(graph);
+        final int[] passages = new int[index.getEdgeCount()];
+        int passageCount = 0;
+        for (int edge = 0; edge < index.getEdgeCount(); edge++) {
+            if (index.getEdge(edge).hasState(PASSAGE)) {
+                passages[passageCount++] = edge;
+            }
+        }
+        for (int i = passageCount - 1; i > 0; i--) {
+            final int j = randomizer.random(i + 1);
+            final int swap = passages[i];
+            passages[i] = passages[j];
+            passages[j] = swap;
+        }
 
+        final IntDisjointSets sections = new IntDisjointSets(index.getVertexCount());
+        int closedPassages = 0;
+        for (int i = 0; i < passageCount; i++) {
+            final int edge = passages[i];
+            if (!sections.union(index.getVertexA(edge), index.getVertexB(edge))) {
+                index.getEdge(edge).setState(PASSAGE, false);
+                closedPassages++;
+            }
+        }
+        return closedPassages;
+    }
 }
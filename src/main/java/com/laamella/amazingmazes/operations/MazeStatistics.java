@@ -0,0 +1,383 @@
+package com.laamella.amazingmazes.operations;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Measures the texture of a grid maze: how many dead ends, junctions, straight
+ * passages and turns it has, and how long its corridors are. These are the
+ * characteristics the generator descriptions talk about; a maze with a low
+ * "river" factor has many short dead ends and short corridors, one with a high
+ * "river" factor has fewer, longer ones.
+ * <p>
+ * Every square is looked at once, in bands of rows on the threads of a
+ * fork/join pool, and the counts of the bands are added up. A corridor is a
+ * chain of squares with two passages each, between two squares that are dead
+ * ends or junctions. It is measured by walking it from both ends, and counted
+ * at the end that comes first in reading order. Corridors that form a ring
+ * without any dead end or junction on it are not counted.
+ * <p>
+ * Only the walls inside the grid count, so an exit in the border doesn't
+ * change anything.
+ */
+public class MazeStatistics {
+    private static final int DEFAULT_SQUARES_PER_TASK = 1 << 16;
+    private static final int UP = 1;
+    private static final int DOWN = 2;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+
+    private interface WallReader {
+        boolean isOpen(int x, int y, boolean horizontal);
+    }
+
+    private final ForkJoinPool pool;
+    private final int squaresPerTask;
+
+    public MazeStatistics() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MazeStatistics(final ForkJoinPool pool) {
+        this(pool, DEFAULT_SQUARES_PER_TASK);
+    }
+
+    /**
+     * @param squaresPerTask bands of rows with at most this many squares, or
+     * a single row, are not split up over threads anymore.
+     */
+    public MazeStatistics(final ForkJoinPool pool, final int squaresPerTask) {
+        this.pool = pool;
+        this.squaresPerTask = squaresPerTask;
+    }
+
+    public Report analyze(final Grid grid) {
+        return analyze(grid.getSize(), (x, y, horizontal) -> grid.getWall(x, y, horizontal).isOpen());
+    }
+
+    public Report analyze(final WallPlanes walls) {
+        return analyze(walls.getSize(), (x, y, horizontal) -> horizontal
+                ? walls.isHorizontalWallOpen(x, y)
+                : walls.isVerticalWallOpen(x, y));
+    }
+
+    private Report analyze(final Size size, final WallReader walls) {
+        if (size.area == 0) {
+            return new Report(size, new Counts());
+        }
+        return new Report(size, pool.invoke(new Bands(size, walls, squaresPerTask, 0, size.height)));
+    }
+
+    /**
+     * @return the passages of square x,y as UP, DOWN, LEFT and RIGHT bits.
+     */
+    private static int getPassages(final Size size, final WallReader walls, final int x, final int y) {
+        int passages = 0;
+        if (y > 0 && walls.isOpen(x, y, true)) {
+            passages |= UP;
+        }
+        if (y < size.height - 1 && walls.isOpen(x, y + 1, true)) {
+            passages |= DOWN;
+        }
+        if (x > 0 && walls.isOpen(x, y, false)) {
+            passages |= LEFT;
+        }
+        if (x < size.width - 1 && walls.isOpen(x + 1, y, false)) {
+            passages |= RIGHT;
+        }
+        return passages;
+    }
+
+    private static int opposite(final int direction) {
+        switch (direction) {
+            case UP:
+                return DOWN;
+            case DOWN:
+                return UP;
+            case LEFT:
+                return RIGHT;
+            default:
+                return LEFT;
+        }
+    }
+
+    private static Counts countRows(final Size size, final WallReader walls, final int firstRow, final int endRow) {
+        final Counts counts = new Counts();
+        for (int y = firstRow; y < endRow; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final int passages = getPassages(size, walls, x, y);
+                if ((passages & DOWN) != 0) {
+                    counts.passages++;
+                }
+                if ((passages & RIGHT) != 0) {
+                    counts.passages++;
+                }
+                switch (Integer.bitCount(passages)) {
+                    case 0:
+                        counts.isolatedSquares++;
+                        break;
+                    case 1:
+                        counts.deadEnds++;
+                        measureCorridors(size, walls, x, y, passages, counts);
+                        break;
+                    case 2:
+                        if (passages == (UP | DOWN) || passages == (LEFT | RIGHT)) {
+                            counts.straights++;
+                        } else {
+                            counts.turns++;
+                        }
+                        break;
+                    case 3:
+                        counts.threeWayJunctions++;
+                        measureCorridors(size, walls, x, y, passages, counts);
+                        break;
+                    default:
+                        counts.fourWayJunctions++;
+                        measureCorridors(size, walls, x, y, passages, counts);
+                        break;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Walks every corridor that leaves end square x,y, and counts the ones
+     * that this square is responsible for.
+     */
+    private static void measureCorridors(final Size size, final WallReader walls, final int startX, final int startY,
+                                         final int startPassages, final Counts counts) {
+        for (int direction = UP; direction <= RIGHT; direction <<= 1) {
+            if ((startPassages & direction) == 0) {
+                continue;
+            }
+            int x = startX;
+            int y = startY;
+            int heading = direction;
+            int length = 0;
+            while (true) {
+                x += heading == LEFT ? -1 : heading == RIGHT ? 1 : 0;
+                y += heading == UP ? -1 : heading == DOWN ? 1 : 0;
+                final int passages = getPassages(size, walls, x, y);
+                if (Integer.bitCount(passages) != 2) {
+                    break;
+                }
+                length++;
+                heading = passages & ~opposite(heading);
+            }
+            if (length == 0) {
+                continue;
+            }
+            final boolean startComesFirst = startY < y || (startY == y && startX < x);
+            // A corridor back to the same square is walked both ways; count it once
+            final boolean loopCountedHere = startX == x && startY == y && direction < opposite(heading);
+            if (startComesFirst || loopCountedHere) {
+                counts.addCorridor(length);
+            }
+        }
+    }
+
+    private static class Counts {
+        private long isolatedSquares;
+        private long deadEnds;
+        private long straights;
+        private long turns;
+        private long threeWayJunctions;
+        private long fourWayJunctions;
+        private long passages;
+        private long[] corridorLengths = new long[16];
+
+        void addCorridor(final int length) {
+            if (length >= corridorLengths.length) {
+                corridorLengths = Arrays.copyOf(corridorLengths, Math.max(length + 1, corridorLengths.length * 2));
+            }
+            corridorLengths[length]++;
+        }
+
+        Counts add(final Counts other) {
+            isolatedSquares += other.isolatedSquares;
+            deadEnds += other.deadEnds;
+            straights += other.straights;
+            turns += other.turns;
+            threeWayJunctions += other.threeWayJunctions;
+            fourWayJunctions += other.fourWayJunctions;
+            passages += other.passages;
+            if (other.corridorLengths.length > corridorLengths.length) {
+                corridorLengths = Arrays.copyOf(corridorLengths, other.corridorLengths.length);
+            }
+            for (int length = 0; length < other.corridorLengths.length; length++) {
+                corridorLengths[length] += other.corridorLengths[length];
+            }
+            return this;
+        }
+    }
+
+    private static class Bands extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final Size size;
+        private final WallReader walls;
+        private final int squaresPerTask;
+        private final int firstRow;
+        private final int endRow;
+
+        Bands(final Size size, final WallReader walls, final int squaresPerTask, final int firstRow,
+              final int endRow) {
+            this.size = size;
+            this.walls = walls;
+            this.squaresPerTask = squaresPerTask;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected Counts compute() {
+            final int rowsPerTask = Math.max(1, squaresPerTask / size.width);
+            if (endRow - firstRow <= rowsPerTask) {
+                return countRows(size, walls, firstRow, endRow);
+            }
+            final int middleRow = (firstRow + endRow) >>> 1;
+            final Bands top = new Bands(size, walls, squaresPerTask, firstRow, middleRow);
+            top.fork();
+            final Counts bottom = new Bands(size, walls, squaresPerTask, middleRow, endRow).compute();
+            return top.join().add(bottom);
+        }
+    }
+
+    /**
+     * The measurements of one maze.
+     */
+    public static class Report {
+        private final Size size;
+        private final long isolatedSquares;
+        private final long deadEnds;
+        private final long straights;
+        private final long turns;
+        private final long threeWayJunctions;
+        private final long fourWayJunctions;
+        private final long passages;
+        private final long[] corridorLengths;
+        private final long corridorCount;
+        private final long corridorSquares;
+
+        private Report(final Size size, final Counts counts) {
+            this.size = size;
+            isolatedSquares = counts.isolatedSquares;
+            deadEnds = counts.deadEnds;
+            straights = counts.straights;
+            turns = counts.turns;
+            threeWayJunctions = counts.threeWayJunctions;
+            fourWayJunctions = counts.fourWayJunctions;
+            passages = counts.passages;
+            int longest = counts.corridorLengths.length - 1;
+            while (longest > 0 && counts.corridorLengths[longest] == 0) {
+                longest--;
+            }
+            corridorLengths = Arrays.copyOf(counts.corridorLengths, longest + 1);
+            long count = 0;
+            long squares = 0;
+            for (int length = 0; length < corridorLengths.length; length++) {
+                count += corridorLengths[length];
+                squares += corridorLengths[length] * length;
+            }
+            corridorCount = count;
+            corridorSquares = squares;
+        }
+
+        public Size getSize() {
+            return size;
+        }
+
+        /**
+         * @return squares without any passage.
+         */
+        public long getIsolatedSquares() {
+            return isolatedSquares;
+        }
+
+        /**
+         * @return squares with one passage.
+         */
+        public long getDeadEnds() {
+            return deadEnds;
+        }
+
+        /**
+         * @return squares with two passages on opposite sides.
+         */
+        public long getStraights() {
+            return straights;
+        }
+
+        /**
+         * @return squares with two passages that make a corner.
+         */
+        public long getTurns() {
+            return turns;
+        }
+
+        public long getThreeWayJunctions() {
+            return threeWayJunctions;
+        }
+
+        public long getFourWayJunctions() {
+            return fourWayJunctions;
+        }
+
+        /**
+         * @return the open walls inside the grid.
+         */
+        public long getPassages() {
+            return passages;
+        }
+
+        public long getCorridorCount() {
+            return corridorCount;
+        }
+
+        /**
+         * @return the amount of corridors of this many squares.
+         */
+        public long getCorridorCount(final int length) {
+            return length < corridorLengths.length ? corridorLengths[length] : 0;
+        }
+
+        public int getLongestCorridor() {
+            return corridorLengths.length - 1;
+        }
+
+        public double getAverageCorridorLength() {
+            return corridorCount == 0 ? 0 : (double) corridorSquares / corridorCount;
+        }
+
+        /**
+         * @return dead ends per square. High for a low "river" factor.
+         */
+        public double getDeadEndRatio() {
+            return size.area == 0 ? 0 : (double) deadEnds / size.area;
+        }
+
+        /**
+         * @return the part of the squares with two passages that goes straight
+         * on, 0..1.
+         */
+        public double getStraightness() {
+            final long twoWaySquares = straights + turns;
+            return twoWaySquares == 0 ? 0 : (double) straights / twoWaySquares;
+        }
+
+        @Override
+        public String toString() {
+            return size + ": " + passages + " passages, " + deadEnds + " dead ends, "
+                    + (threeWayJunctions + fourWayJunctions) + " junctions (" + fourWayJunctions + " four way), "
+                    + straights + " straights, " + turns + " turns, " + isolatedSquares + " isolated, "
+                    + corridorCount + " corridors, average length " + String.format("%.2f", getAverageCorridorLength())
+                    + ", longest " + getLongestCorridor();
+        }
+    }
+}
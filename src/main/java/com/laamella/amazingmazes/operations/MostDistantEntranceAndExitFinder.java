@@ -14,7 +14,7 @@ import static com.laamella.amazingmazes.solvers.Solver.SOLUTION;
 
 /**
  * Attempt at using the distances to dead ends to find the longest path.
- * Algorithm doesn't work right.
+ * Algorithm doesn't work right; {@link LongestPathMarker} does.
  */
 public class MostDistantEntranceAndExitFinder {
 
@@ -1,5 +1,7 @@
 package com.laamella.amazingmazes.operations;
 
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
 import com.laamella.amazingmazes.mazemodel.graph.Edge;
 import com.laamella.amazingmazes.mazemodel.graph.Vertex;
@@ -8,11 +10,20 @@ import com.laamella.amazingmazes.mazemodel.graph.Vertex;
  * This will mark every vertex in the graph with its distance from the start
  * vertex.
  */
-public class VertexDistanceMarker {
+public class VertexDistanceMarker implements Instrumented {
     public static final Object DISTANCE = new Object();
 
+    private Instrumentation instrumentation = Instrumentation.NONE;
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
     public void mark(final Vertex startVertex) {
+        final long startTime = instrumentation.phaseStarted("mark");
         recurse(startVertex, 0);
+        instrumentation.phaseEnded("mark", startTime);
     }
 
     private void recurse(final Vertex vertex, final int distance) {
@@ -24,6 +35,7 @@ public class VertexDistanceMarker {
             }
         }
         vertex.setState(DISTANCE, distance);
+        instrumentation.cellsVisited(1);
         for (final Edge edge : vertex.getEdges()) {
             if (edge.hasState(MazeDefinitionState.PASSAGE)) {
                 final Vertex nextVertex = edge.travel(vertex);
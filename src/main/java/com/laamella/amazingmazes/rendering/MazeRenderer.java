@@ -0,0 +1,338 @@
+package com.laamella.amazingmazes.rendering;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Draws mazes as text or as a PBM image, one line at a time, so a maze of any
+ * size can be written with a buffer of only one line.
+ * <p>
+ * A maze on a grid is drawn from its {@link WallPlanes}: every line of walls is
+ * followed by a line of squares. Every corner gets a character for the walls
+ * that meet there, which is looked up in a table by four bits: a wall going
+ * up, down, left and right. A maze in a matrix is drawn from a
+ * {@link BitMatrix} of passages, one character or pixel per cell.
+ * <p>
+ * In PBM images, black pixels are walls. A grid maze becomes a (2w+1)x(2h+1)
+ * image, where every square, wall and corner takes a pixel.
+ */
+public class MazeRenderer {
+    public enum Style {
+        /**
+         * Plain ASCII, with +, - and |.
+         */
+        ASCII(new Glyphs(" |||-+++-+++-+++", "  ", "--", " ", "|", " ", "#")),
+        /**
+         * Box drawing characters, in UTF-8.
+         */
+        UNICODE(new Glyphs(" ╵╷│╴┘┐┤╶└┌├─┴┬┼",
+                "  ", "──", " ", "│", " ", "█")),
+        /**
+         * Binary portable bitmap.
+         */
+        PBM(null);
+
+        private final Glyphs glyphs;
+
+        Style(final Glyphs glyphs) {
+            this.glyphs = glyphs;
+        }
+    }
+
+    /**
+     * Receives a finished line.
+     */
+    private interface LineSink {
+        void write(byte[] line, int length) throws IOException;
+    }
+
+    private static final byte[] PBM_WALL_ROW = new byte[16];
+    private static final byte[] PBM_SQUARE_ROW = new byte[16];
+    private static final byte[] REVERSED_BITS = new byte[256];
+
+    static {
+        // A nibble holds the closed walls of four squares, lowest bit first.
+        // Pixels go highest bit first, as corner/wall or wall/square pairs.
+        for (int nibble = 0; nibble < 16; nibble++) {
+            int wallRow = 0;
+            int squareRow = 0;
+            for (int i = 0; i < 4; i++) {
+                final boolean closed = (nibble >>> i & 1) != 0;
+                wallRow |= (0x80 >>> 2 * i) | (closed ? 0x40 >>> 2 * i : 0);
+                squareRow |= closed ? 0x80 >>> 2 * i : 0;
+            }
+            PBM_WALL_ROW[nibble] = (byte) wallRow;
+            PBM_SQUARE_ROW[nibble] = (byte) squareRow;
+        }
+        for (int i = 0; i < 256; i++) {
+            REVERSED_BITS[i] = (byte) (Integer.reverse(i) >>> 24);
+        }
+    }
+
+    private final Style style;
+
+    public MazeRenderer(final Style style) {
+        this.style = style;
+    }
+
+    public void render(final WallPlanes walls, final OutputStream out) throws IOException {
+        render(walls, (line, length) -> out.write(line, 0, length));
+    }
+
+    /**
+     * @throws IllegalArgumentException for PBM, which is not text.
+     */
+    public void render(final WallPlanes walls, final Writer out) throws IOException {
+        render(walls, writerSink(out));
+    }
+
+    /**
+     * @throws java.nio.BufferOverflowException when the maze doesn't fit.
+     */
+    public void render(final WallPlanes walls, final ByteBuffer out) {
+        try {
+            render(walls, (line, length) -> out.put(line, 0, length));
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void render(final BitMatrix passages, final OutputStream out) throws IOException {
+        render(passages, (line, length) -> out.write(line, 0, length));
+    }
+
+    /**
+     * @throws IllegalArgumentException for PBM, which is not text.
+     */
+    public void render(final BitMatrix passages, final Writer out) throws IOException {
+        render(passages, writerSink(out));
+    }
+
+    /**
+     * @throws java.nio.BufferOverflowException when the maze doesn't fit.
+     */
+    public void render(final BitMatrix passages, final ByteBuffer out) {
+        try {
+            render(passages, (line, length) -> out.put(line, 0, length));
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LineSink writerSink(final Writer out) {
+        if (style.glyphs == null) {
+            throw new IllegalArgumentException(style + " is not text.");
+        }
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        return new LineSink() {
+            private CharBuffer chars = CharBuffer.allocate(0);
+
+            @Override
+            public void write(final byte[] line, final int length) throws IOException {
+                // A line never ends halfway a character, and never has more characters than bytes
+                if (chars.capacity() < length) {
+                    chars = CharBuffer.allocate(length);
+                }
+                chars.clear();
+                decoder.reset();
+                decoder.decode(ByteBuffer.wrap(line, 0, length), chars, true);
+                decoder.flush(chars);
+                out.write(chars.array(), 0, chars.position());
+            }
+        };
+    }
+
+    private void render(final WallPlanes walls, final LineSink sink) throws IOException {
+        if (style.glyphs == null) {
+            renderBitmap(walls, sink);
+        } else {
+            renderText(walls, style.glyphs, sink);
+        }
+    }
+
+    private void render(final BitMatrix passages, final LineSink sink) throws IOException {
+        if (style.glyphs == null) {
+            renderBitmap(passages, sink);
+        } else {
+            renderText(passages, style.glyphs, sink);
+        }
+    }
+
+    private static void renderText(final WallPlanes walls, final Glyphs glyphs, final LineSink sink)
+            throws IOException {
+        final Size size = walls.getSize();
+        final int wordsPerRow = walls.getWordsPerRow();
+        long[] verticalAbove = new long[wordsPerRow];
+        long[] verticalBelow = new long[wordsPerRow];
+        final long[] horizontal = new long[wordsPerRow];
+        final byte[] line = new byte[(size.width + 1) * glyphs.maximumCellLength + 1];
+
+        for (int y = 0; y <= size.height; y++) {
+            for (int word = 0; word < wordsPerRow; word++) {
+                horizontal[word] = ~walls.getHorizontalWord(y, word) & walls.getSquareMask(word);
+                verticalBelow[word] = y < size.height
+                        ? ~walls.getVerticalWord(y, word) & WallPlanes.rangeMask(word, 0, size.width + 1)
+                        : 0;
+            }
+
+            int length = 0;
+            for (int x = 0; x <= size.width; x++) {
+                final int right = bit(horizontal, x);
+                final int corner = bit(verticalAbove, x) | bit(verticalBelow, x) << 1
+                        | (x > 0 ? bit(horizontal, x - 1) << 2 : 0) | right << 3;
+                length = append(line, length, glyphs.corners[corner]);
+                if (x < size.width) {
+                    length = append(line, length, glyphs.horizontalWalls[right]);
+                }
+            }
+            line[length++] = '\n';
+            sink.write(line, length);
+
+            if (y < size.height) {
+                length = 0;
+                for (int x = 0; x <= size.width; x++) {
+                    length = append(line, length, glyphs.verticalWalls[bit(verticalBelow, x)]);
+                    if (x < size.width) {
+                        length = append(line, length, glyphs.square);
+                    }
+                }
+                line[length++] = '\n';
+                sink.write(line, length);
+            }
+
+            final long[] swap = verticalAbove;
+            verticalAbove = verticalBelow;
+            verticalBelow = swap;
+        }
+    }
+
+    private static void renderText(final BitMatrix passages, final Glyphs glyphs, final LineSink sink)
+            throws IOException {
+        final Size size = passages.getSize();
+        final long[] row = new long[passages.getWordsPerRow()];
+        final byte[] line = new byte[size.width * glyphs.maximumCellLength + 1];
+        for (int y = 0; y < size.height; y++) {
+            passages.getRow(y, row);
+            int length = 0;
+            for (int x = 0; x < size.width; x++) {
+                length = append(line, length, glyphs.cells[bit(row, x)]);
+            }
+            line[length++] = '\n';
+            sink.write(line, length);
+        }
+    }
+
+    private static void renderBitmap(final WallPlanes walls, final LineSink sink) throws IOException {
+        final Size size = walls.getSize();
+        final int width = size.width * 2 + 1;
+        final byte[] line = writeBitmapHeader(width, size.height * 2 + 1, sink);
+        final byte lastByteMask = lastByteMask(width);
+
+        for (int y = 0; y <= size.height; y++) {
+            for (int i = 0; i < line.length; i++) {
+                final int x = i * 4;
+                line[i] = PBM_WALL_ROW[(int) (~walls.getHorizontalWord(y, x >>> 6) >>> x) & 0xf];
+            }
+            line[line.length - 1] &= lastByteMask;
+            sink.write(line, line.length);
+
+            if (y < size.height) {
+                for (int i = 0; i < line.length; i++) {
+                    final int x = i * 4;
+                    line[i] = PBM_SQUARE_ROW[(int) (~walls.getVerticalWord(y, x >>> 6) >>> x) & 0xf];
+                }
+                line[line.length - 1] &= lastByteMask;
+                sink.write(line, line.length);
+            }
+        }
+    }
+
+    private static void renderBitmap(final BitMatrix passages, final LineSink sink) throws IOException {
+        final Size size = passages.getSize();
+        final long[] row = new long[passages.getWordsPerRow()];
+        final byte[] line = writeBitmapHeader(size.width, size.height, sink);
+        final byte lastByteMask = lastByteMask(size.width);
+        for (int y = 0; y < size.height; y++) {
+            passages.getRow(y, row);
+            for (int i = 0; i < line.length; i++) {
+                final int x = i * 8;
+                line[i] = REVERSED_BITS[(int) (~row[x >>> 6] >>> x) & 0xff];
+            }
+            line[line.length - 1] &= lastByteMask;
+            sink.write(line, line.length);
+        }
+    }
+
+    /**
+     * @return a buffer for one row of pixels.
+     */
+    private static byte[] writeBitmapHeader(final int width, final int height, final LineSink sink)
+            throws IOException {
+        final byte[] header = ("P4\n" + width + " " + height + "\n").getBytes(StandardCharsets.US_ASCII);
+        sink.write(header, header.length);
+        return new byte[(width + 7) / 8];
+    }
+
+    /**
+     * @return a mask for the pixels of the last byte of a row that are in the
+     * image. The others must be 0.
+     */
+    private static byte lastByteMask(final int width) {
+        final int pixelsInLastByte = width - (width - 1) / 8 * 8;
+        return (byte) (0xff00 >>> pixelsInLastByte);
+    }
+
+    private static int bit(final long[] row, final int x) {
+        return (int) (row[x >>> 6] >>> x) & 1;
+    }
+
+    private static int append(final byte[] line, final int length, final byte[] glyph) {
+        System.arraycopy(glyph, 0, line, length, glyph.length);
+        return length + glyph.length;
+    }
+
+    /**
+     * The bytes for every part of a text maze, looked up by flags.
+     */
+    private static class Glyphs {
+        private final byte[][] corners = new byte[16][];
+        private final byte[][] horizontalWalls;
+        private final byte[][] verticalWalls;
+        private final byte[] square;
+        private final byte[][] cells;
+        private final int maximumCellLength;
+
+        /**
+         * @param corners 16 characters, for the walls meeting at a corner: bit
+         * 0 up, bit 1 down, bit 2 left, bit 3 right.
+         */
+        Glyphs(final String corners, final String openHorizontalWall, final String closedHorizontalWall,
+               final String openVerticalWall, final String closedVerticalWall, final String passage,
+               final String solid) {
+            int maximumCornerLength = 0;
+            for (int i = 0; i < 16; i++) {
+                this.corners[i] = bytes(corners.substring(i, i + 1));
+                maximumCornerLength = Math.max(maximumCornerLength, this.corners[i].length);
+            }
+            horizontalWalls = new byte[][]{bytes(openHorizontalWall), bytes(closedHorizontalWall)};
+            verticalWalls = new byte[][]{bytes(openVerticalWall), bytes(closedVerticalWall)};
+            square = bytes("  ");
+            cells = new byte[][]{bytes(solid), bytes(passage)};
+            maximumCellLength = Math.max(Math.max(maximumCornerLength + horizontalWalls[1].length,
+                    verticalWalls[1].length + square.length), cells[0].length);
+        }
+
+        private static byte[] bytes(final String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
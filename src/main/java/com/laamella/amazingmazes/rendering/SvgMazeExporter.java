@@ -0,0 +1,161 @@
+package com.laamella.amazingmazes.rendering;
+
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes a grid maze as an SVG image with one path. Closed walls that line up
+ * are merged into one line, so a row of walls costs one path command per run
+ * of closed walls, instead of one per wall. The path is written row by row, so
+ * nothing the size of the maze is built in memory.
+ */
+public class SvgMazeExporter {
+    /**
+     * Fills a row with the closed walls of a line, bit x for wall x.
+     */
+    private interface WallRowReader {
+        void readClosedWalls(int line, boolean horizontal, long[] row);
+    }
+
+    private final int squareSize;
+    private final int strokeWidth;
+
+    /**
+     * Uses squares of 10 by 10 and lines of width 2.
+     */
+    public SvgMazeExporter() {
+        this(10, 2);
+    }
+
+    public SvgMazeExporter(final int squareSize, final int strokeWidth) {
+        this.squareSize = squareSize;
+        this.strokeWidth = strokeWidth;
+    }
+
+    /**
+     * @return the amount of lines drawn.
+     */
+    public int export(final WallPlanes walls, final Writer out) throws IOException {
+        final Size size = walls.getSize();
+        return export(size, walls.getWordsPerRow(), (line, horizontal, row) -> {
+            for (int word = 0; word < row.length; word++) {
+                if (horizontal) {
+                    row[word] = ~walls.getHorizontalWord(line, word) & walls.getSquareMask(word);
+                } else {
+                    row[word] = ~walls.getVerticalWord(line, word) & WallPlanes.rangeMask(word, 0, size.width + 1);
+                }
+            }
+        }, out);
+    }
+
+    /**
+     * Works for any grid, but asks every wall for its state.
+     *
+     * @return the amount of lines drawn.
+     */
+    public int export(final Grid grid, final Writer out) throws IOException {
+        final Size size = grid.getSize();
+        return export(size, (size.width + 1 + 63) / 64, (line, horizontal, row) -> {
+            Arrays.fill(row, 0);
+            if (horizontal) {
+                for (int x = 0; x < size.width; x++) {
+                    if (!grid.getWall(x, line, true).isOpen()) {
+                        row[x >>> 6] |= 1L << x;
+                    }
+                }
+            } else {
+                for (int x = 0; x <= size.width; x++) {
+                    if (!grid.getWall(x, line, false).isOpen()) {
+                        row[x >>> 6] |= 1L << x;
+                    }
+                }
+            }
+        }, out);
+    }
+
+    private int export(final Size size, final int wordsPerRow, final WallRowReader reader, final Writer out)
+            throws IOException {
+        final int margin = strokeWidth;
+        final int width = size.width * squareSize + 2 * margin;
+        final int height = size.height * squareSize + 2 * margin;
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"" + -margin + " " + -margin + " " + width + " " + height + "\">\n");
+        out.write("<path stroke=\"black\" stroke-width=\"" + strokeWidth
+                + "\" stroke-linecap=\"square\" fill=\"none\" d=\"");
+
+        final long[] row = new long[wordsPerRow];
+        final StringBuilder commands = new StringBuilder();
+        int lineCount = 0;
+        for (int y = 0; y <= size.height; y++) {
+            reader.readClosedWalls(y, true, row);
+            int x = nextBit(row, 0, size.width, 1);
+            while (x < size.width) {
+                final int end = nextBit(row, x, size.width, 0);
+                commands.append('M').append(x * squareSize).append(' ').append(y * squareSize)
+                        .append('h').append((end - x) * squareSize);
+                lineCount++;
+                x = nextBit(row, end, size.width, 1);
+            }
+            flushLine(commands, out);
+        }
+        // Vertical lines run down a column, so the columns are read row by
+        // row, and a run is closed when its column has an open wall.
+        final int[] runStarts = new int[size.width + 1];
+        Arrays.fill(runStarts, -1);
+        for (int y = 0; y <= size.height; y++) {
+            if (y < size.height) {
+                reader.readClosedWalls(y, false, row);
+            } else {
+                Arrays.fill(row, 0);
+            }
+            for (int x = 0; x <= size.width; x++) {
+                final boolean closed = (row[x >>> 6] >>> x & 1) != 0;
+                if (closed && runStarts[x] < 0) {
+                    runStarts[x] = y;
+                } else if (!closed && runStarts[x] >= 0) {
+                    commands.append('M').append(x * squareSize).append(' ').append(runStarts[x] * squareSize)
+                            .append('v').append((y - runStarts[x]) * squareSize);
+                    lineCount++;
+                    runStarts[x] = -1;
+                }
+            }
+            flushLine(commands, out);
+        }
+        out.write("\"/>\n</svg>\n");
+        return lineCount;
+    }
+
+    private static void flushLine(final StringBuilder commands, final Writer out) throws IOException {
+        if (commands.length() > 0) {
+            commands.append('\n');
+            out.append(commands);
+            commands.setLength(0);
+        }
+    }
+
+    /**
+     * @return the first x from start on, before limit, where the bit is value,
+     * or limit.
+     */
+    private static int nextBit(final long[] row, final int start, final int limit, final int value) {
+        if (start >= limit) {
+            return limit;
+        }
+        final long flip = value == 1 ? 0 : -1L;
+        int word = start >>> 6;
+        long bits = (row[word] ^ flip) & (-1L << start);
+        while (bits == 0) {
+            word++;
+            if (word * 64 >= limit) {
+                return limit;
+            }
+            bits = row[word] ^ flip;
+        }
+        return Math.min(limit, word * 64 + Long.numberOfTrailingZeros(bits));
+    }
+}
@@ -1,5 +1,7 @@
 package com.laamella.amazingmazes.solvers;
 
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
 import com.laamella.amazingmazes.mazemodel.graph.Edge;
 import com.laamella.amazingmazes.mazemodel.graph.Vertex;
@@ -17,13 +19,24 @@ import com.laamella.amazingmazes.mazemodel.graph.Vertex;
  * terms this is basically a depth first search. This method will always find a
  * solution if one exists, but it won't necessarily be the shortest solution.
  */
-public class RecursiveBacktrackerSolver implements Solver {
+public class RecursiveBacktrackerSolver implements Solver, Instrumented {
+    private Instrumentation instrumentation = Instrumentation.NONE;
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
     public boolean solve(final Vertex entrance) {
-        return recurse(entrance);
+        final long startTime = instrumentation.phaseStarted("solve");
+        final boolean solved = recurse(entrance);
+        instrumentation.phaseEnded("solve", startTime);
+        return solved;
     }
 
     private boolean recurse(final Vertex currentVertex) {
         currentVertex.setState(VISITED_WHILE_SOLVING, true);
+        instrumentation.cellsVisited(1);
 
         if (currentVertex.hasState(MazeDefinitionState.EXIT)) {
             // Found the exit!
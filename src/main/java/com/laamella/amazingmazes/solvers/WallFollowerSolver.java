@@ -1,5 +1,15 @@
 package com.laamella.amazingmazes.solvers;
 
+import com.laamella.amazingmazes.instrumentation.Instrumentation;
+import com.laamella.amazingmazes.instrumentation.Instrumented;
+import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
+
+import java.util.Arrays;
+
 /**
  * This is another simple Maze solving algorithm. It focuses on you, is always
  * very fast, and uses no extra memory. Start following passages, and whenever
@@ -15,7 +25,180 @@ package com.laamella.amazingmazes.solvers;
  * projecting the 3D passages onto the 2D plane, e.g. by pretending up passages
  * actually lead northwest and down lead southeast, and then applying normal wall
  * following rules.
+ * <p>
+ * The position and heading are kept in ints, where the headings go clockwise
+ * so turning right is adding one, like {@link Direction#turnRight()}. Nothing
+ * is marked in the maze while walking: the walk is stored as one heading of 2
+ * bits per step, in a buffer that is kept for the next walk, so solving many
+ * mazes with one solver doesn't allocate anything once the buffer is big
+ * enough. {@link #markPath(Grid)} marks the walk afterwards, if needed.
+ * <p>
+ * Following a wall never passes the same square in the same heading twice
+ * unless it is going in circles, so the walk gives up after four steps per
+ * square.
+ * <p>
+ * Not thread safe: use one solver per thread.
  */
-public class WallFollowerSolver {
+public class WallFollowerSolver implements GridSolver, Solver, Instrumented {
+    private static final int UP = 0;
+    private static final int RIGHT = 1;
+    private static final int DOWN = 2;
+    private static final int LEFT = 3;
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    private final boolean rightHand;
+    private Instrumentation instrumentation = Instrumentation.NONE;
+    private long[] path = new long[16];
+    private int pathLength;
+    private int startX;
+    private int startY;
+
+    /**
+     * Follows the right hand wall.
+     */
+    public WallFollowerSolver() {
+        this(true);
+    }
+
+    /**
+     * @param rightHand whether to follow the right hand wall, or else the left
+     * hand wall.
+     */
+    public WallFollowerSolver(final boolean rightHand) {
+        this.rightHand = rightHand;
+    }
+
+    @Override
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Walks from the square marked ENTRANCE to the square marked EXIT.
+     *
+     * @return false when there is no entrance or exit, or the exit wasn't
+     * found.
+     */
+    @Override
+    public boolean solve(final Grid grid) {
+        final Size size = grid.getSize();
+        int entrance = -1;
+        int exit = -1;
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final Square square = grid.getSquare(x, y);
+                if (square.hasState(MazeDefinitionState.ENTRANCE)) {
+                    entrance = y * size.width + x;
+                }
+                if (square.hasState(MazeDefinitionState.EXIT)) {
+                    exit = y * size.width + x;
+                }
+            }
+        }
+        if (entrance < 0 || exit < 0) {
+            pathLength = 0;
+            return false;
+        }
+        return solve(grid, entrance % size.width, entrance / size.width, exit % size.width, exit / size.width);
+    }
+
+    /**
+     * Walks from one square to another without looking at any states but
+     * PASSAGE.
+     *
+     * @return whether the exit was found.
+     */
+    public boolean solve(final Grid grid, final int entranceX, final int entranceY, final int exitX,
+                         final int exitY) {
+        final long startTime = instrumentation.phaseStarted("solve");
+        final Size size = grid.getSize();
+        final long maximumSteps = 4L * size.area;
+        startX = entranceX;
+        startY = entranceY;
+        pathLength = 0;
+        int x = entranceX;
+        int y = entranceY;
+        int heading = UP;
+        boolean solved = true;
+        while (x != exitX || y != exitY) {
+            if (pathLength >= maximumSteps) {
+                solved = false;
+                break;
+            }
+            // Try the hand side first, then straight on, the other side, and back
+            int direction = rightHand ? (heading + 1) & 3 : (heading + 3) & 3;
+            int turns = 0;
+            while (turns < 4 && !canMove(grid, size, x, y, direction)) {
+                direction = rightHand ? (direction + 3) & 3 : (direction + 1) & 3;
+                turns++;
+            }
+            if (turns == 4) {
+                solved = false;
+                break;
+            }
+            heading = direction;
+            x += heading == RIGHT ? 1 : heading == LEFT ? -1 : 0;
+            y += heading == DOWN ? 1 : heading == UP ? -1 : 0;
+            addStep(heading);
+        }
+        instrumentation.cellsVisited(pathLength);
+        instrumentation.phaseEnded("solve", startTime);
+        return solved;
+    }
+
+    private static boolean canMove(final Grid grid, final Size size, final int x, final int y, final int direction) {
+        switch (direction) {
+            case UP:
+                return y > 0 && grid.getWall(x, y, true).isOpen();
+            case RIGHT:
+                return x < size.width - 1 && grid.getWall(x + 1, y, false).isOpen();
+            case DOWN:
+                return y < size.height - 1 && grid.getWall(x, y + 1, true).isOpen();
+            default:
+                return x > 0 && grid.getWall(x, y, false).isOpen();
+        }
+    }
+
+    private void addStep(final int heading) {
+        final int word = pathLength >>> 5;
+        if (word == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        final int shift = (pathLength & 31) << 1;
+        path[word] = path[word] & ~(3L << shift) | (long) heading << shift;
+        pathLength++;
+    }
+
+    /**
+     * @return the amount of steps of the last walk, including the ones back
+     * out of dead ends.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @return the heading of a step of the last walk.
+     */
+    public Direction getStep(final int step) {
+        if (step < 0 || step >= pathLength) {
+            throw new IndexOutOfBoundsException("Step " + step + " of " + pathLength);
+        }
+        return DIRECTIONS[(int) (path[step >>> 5] >>> ((step & 31) << 1)) & 3];
+    }
 
+    /**
+     * Marks every square of the last walk with SOLUTION.
+     */
+    public void markPath(final Grid grid) {
+        int x = startX;
+        int y = startY;
+        grid.getSquare(x, y).setState(SOLUTION, true);
+        for (int step = 0; step < pathLength; step++) {
+            final int heading = (int) (path[step >>> 5] >>> ((step & 31) << 1)) & 3;
+            x += heading == RIGHT ? 1 : heading == LEFT ? -1 : 0;
+            y += heading == DOWN ? 1 : heading == UP ? -1 : 0;
+            grid.getSquare(x, y).setState(SOLUTION, true);
+        }
+    }
 }
@@ -1,30 +1,72 @@
 package com.laamella.amazingmazes;
 
+import com.laamella.amazingmazes.generators.BraidingMazeGenerator;
+import com.laamella.amazingmazes.generators.EdgeWeigher;
+import com.laamella.amazingmazes.generators.IntDeque;
+import com.laamella.amazingmazes.generators.IntDisjointSets;
+import com.laamella.amazingmazes.generators.MazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.batch.BatchMazeGenerator;
+import com.laamella.amazingmazes.generators.batch.GridPool;
+import com.laamella.amazingmazes.generators.batch.MazeCache;
+import com.laamella.amazingmazes.generators.batch.PooledGrid;
 import com.laamella.amazingmazes.generators.daedalus.*;
+import com.laamella.amazingmazes.generators.labyrinth.CompiledGridLogoProgram;
 import com.laamella.amazingmazes.generators.labyrinth.GridLogoProgram;
+import com.laamella.amazingmazes.generators.labyrinth.GridLogoProgramCompiler;
 import com.laamella.amazingmazes.generators.labyrinth.GridLogoProgramRunnerMazeGenerator;
+import com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve.HilbertCurveMazeGenerator;
 import com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve.HilbertCurveProgram;
+import com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve.MooreCurveMazeGenerator;
+import com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve.PeanoCurveMazeGenerator;
 import com.laamella.amazingmazes.generators.labyrinth.spacefillingcurve.PeanoCurveProgram;
 import com.laamella.amazingmazes.generators.original.RecursiveBacktrackerMazeGeneratorForMatrices;
 import com.laamella.amazingmazes.generators.various.EllerMazeGeneratorC64;
+import com.laamella.amazingmazes.generators.various.ParallelRecursiveDivisionMazeGenerator;
 import com.laamella.amazingmazes.generators.various.RecursiveDivisionMazeGenerator;
 import com.laamella.amazingmazes.generators.various.RysgaardMazeGenerator;
+import com.laamella.amazingmazes.instrumentation.AggregatingInstrumentation;
+import com.laamella.amazingmazes.instrumentation.InstrumentedRandomizer;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
 import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.Turtle;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+import com.laamella.amazingmazes.mazemodel.graph.Vertex;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.GridCursor;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
 import com.laamella.amazingmazes.mazemodel.grid.implementation.GridMatrixStorage;
 import com.laamella.amazingmazes.mazemodel.grid.implementation.GridRowGenerator;
 import com.laamella.amazingmazes.mazemodel.grid.implementation.GridWithDecoupledState;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.SubGrid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanesStateStorage;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.ByteMatrix;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.IntMatrix;
 import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
+import com.laamella.amazingmazes.mazemodel.world.ChunkedMazeWorld;
+import com.laamella.amazingmazes.operations.LoopRemover;
+import com.laamella.amazingmazes.operations.MazeStatistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 import static com.laamella.amazingmazes.mazemodel.grid.Direction.LEFT;
 import static com.laamella.amazingmazes.mazemodel.grid.Direction.RIGHT;
+import static com.laamella.amazingmazes.mazemodel.grid.Direction.UP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -77,6 +119,33 @@ public class MazeGeneratorTester {
         mazeGenerator.generateMaze(grid);
     }
 
+    @Test
+    public void testParallelRecursiveDivisionMazeGeneratorIsIndependentOfThreadCount() {
+        final Grid singleThreaded = new GridWithDecoupledState(new GridMatrixStorage(new StateMatrix(new Size(401, 163))));
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        try {
+            new ParallelRecursiveDivisionMazeGenerator(42, singleThreadPool, 16).generateMaze(singleThreaded);
+        } finally {
+            singleThreadPool.shutdown();
+        }
+        // Wall planes are drawn into by the tasks, wide enough for words that belong to one chamber
+        final Grid multiThreaded = new GridWithDecoupledState(
+                new WallPlanesStateStorage(new WallPlanes(new Size(200, 81))));
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new ParallelRecursiveDivisionMazeGenerator(42, pool, 16).generateMaze(multiThreaded);
+        } finally {
+            pool.shutdown();
+        }
+        assertPerfectMaze(multiThreaded);
+        final GraphIndex singleThreadedIndex = new GraphIndex(singleThreaded);
+        final GraphIndex multiThreadedIndex = new GraphIndex(multiThreaded);
+        for (int edge = 0; edge < singleThreadedIndex.getEdgeCount(); edge++) {
+            assertEquals(singleThreadedIndex.getEdge(edge).hasState(MazeDefinitionState.PASSAGE),
+                    multiThreadedIndex.getEdge(edge).hasState(MazeDefinitionState.PASSAGE));
+        }
+    }
+
     @Test
     public void testRecursiveBacktrackerMazeGenerator() {
         final RecursiveBacktrackerMazeGenerator mazeGenerator = new RecursiveBacktrackerMazeGenerator(randomGenerator);
@@ -84,10 +153,74 @@ public class MazeGeneratorTester {
         mazeGenerator.generateMaze(grid);
     }
 
+    @Test
+    public void testBraidingMazeGenerator() {
+        new BraidingMazeGenerator(new BinaryTreeMazeGenerator(randomGenerator), randomGenerator, 0)
+                .generateMaze(grid);
+        final MazeStatistics.Report report = new MazeStatistics().analyze(grid);
+        assertEquals(0, report.getDeadEnds());
+        assertEquals(0, report.getIsolatedSquares());
+        // Taking the loops out again leaves a perfect maze
+        new LoopRemover(randomGenerator).removeLoops(grid);
+        assertPerfectMaze(grid);
+    }
+
     @Test
     public void testGrowingTreeMazeGenerator() {
         final GrowingTreeMazeGenerator mazeGenerator = new GrowingTreeMazeGenerator(randomGenerator);
         mazeGenerator.generateMaze(grid);
+        assertPerfectMaze(grid);
+    }
+
+    @Test
+    public void testInstrumentation() {
+        final AggregatingInstrumentation instrumentation = new AggregatingInstrumentation();
+        final GrowingTreeMazeGenerator mazeGenerator = new GrowingTreeMazeGenerator(
+                new InstrumentedRandomizer(randomGenerator, instrumentation));
+        mazeGenerator.setInstrumentation(instrumentation);
+        mazeGenerator.generateMaze(grid);
+
+        final AggregatingInstrumentation.Snapshot snapshot = instrumentation.snapshot();
+        log.info("{}", snapshot);
+        assertEquals(81, snapshot.getCellsVisited());
+        assertEquals(80, snapshot.getWallsOpened());
+        assertTrue(snapshot.getRandomDraws() > 80);
+        assertTrue(snapshot.getMaximumFrontierSize() > 0);
+        assertEquals(Long.valueOf(1), snapshot.getPhaseCounts().get("generate"));
+
+        instrumentation.reset();
+        assertEquals(0, instrumentation.snapshot().getCellsVisited());
+    }
+
+    @Test
+    public void testGrowingTreeMazeGeneratorWithMixedSelector() {
+        final GrowingTreeMazeGenerator mazeGenerator = new GrowingTreeMazeGenerator(randomGenerator,
+                new GrowingTreeMazeGenerator.Selector.Mix(new GrowingTreeMazeGenerator.Selector.Newest(), 0.75,
+                        new GrowingTreeMazeGenerator.Selector.Random()));
+        mazeGenerator.generateMaze(grid);
+        assertPerfectMaze(grid);
+        for (final Vertex vertex : grid.getVertices()) {
+            assertTrue(vertex.hasState(MazeGenerator.VISITED_WHILE_GENERATING));
+        }
+    }
+
+    @Test
+    public void testIntDequeRemoveAtKeepsOrder() {
+        final IntDeque deque = new IntDeque(8);
+        // Wrap around the end of the ring buffer
+        deque.addLast(3);
+        deque.addLast(4);
+        deque.addFirst(2);
+        deque.addFirst(1);
+        deque.addLast(5);
+        deque.addLast(6);
+        assertEquals(2, deque.removeAt(1));
+        assertEquals(5, deque.removeAt(3));
+        assertEquals(4, deque.size());
+        assertEquals(1, deque.get(0));
+        assertEquals(3, deque.get(1));
+        assertEquals(4, deque.get(2));
+        assertEquals(6, deque.get(3));
     }
 
     @Test
@@ -96,7 +229,21 @@ public class MazeGeneratorTester {
                 randomGenerator);
         final StateMatrix stateMatrix = new StateMatrix(new Size(20, 10));
         stateMatrix.addObserver(new PrettyPrintObserver(stateMatrix));
+        final int[] updates = new int[1];
+        stateMatrix.addObserver((observable, argument) -> updates[0]++);
         mazeGenerator.generateMaze(stateMatrix);
+        // Observers see every passage being made
+        final BitMatrix passages = BitMatrix.passagesOf(stateMatrix);
+        int passageCount = 0;
+        for (int y = 0; y < passages.getSize().height; y++) {
+            for (int x = 0; x < passages.getSize().width; x++) {
+                if (passages.getBit(x, y)) {
+                    passageCount++;
+                }
+            }
+        }
+        assertTrue(passageCount > 1);
+        assertEquals(passageCount, updates[0]);
     }
 
     @Test
@@ -107,6 +254,76 @@ public class MazeGeneratorTester {
         mazeGenerator.generateMaze(stateMatrix);
     }
 
+    @Test
+    public void testMatrixGeneratorsOnLargeMatrix() {
+        final StateMatrix backtrackerMatrix = new StateMatrix(new Size(300, 300));
+        new RecursiveBacktrackerMazeGeneratorForMatrices(randomGenerator).generateMaze(backtrackerMatrix);
+        assertPassagesConnected(backtrackerMatrix);
+
+        final StateMatrix rysgaardMatrix = new StateMatrix(new Size(300, 300));
+        new RysgaardMazeGenerator(randomGenerator).generateMaze(rysgaardMatrix);
+        assertPassagesConnected(rysgaardMatrix);
+    }
+
+    @Test
+    public void testMatrixGeneratorsOnBitMatrix() {
+        final BitMatrix passages = new BitMatrix(new Size(1000, 1000));
+        new RysgaardMazeGenerator(randomGenerator).generateMaze(passages);
+        final StateMatrix stateMatrix = new StateMatrix(passages.getSize());
+        passages.writePassagesTo(stateMatrix);
+        assertPassagesConnected(stateMatrix);
+        assertEquals(passages.getBit(10, 20), stateMatrix.get(10, 20).hasState(MazeDefinitionState.PASSAGE));
+    }
+
+    @Test
+    public void testPrimitiveMatrices() {
+        final BitMatrix bits = new BitMatrix(new Size(130, 3));
+        bits.set(129, 0, true);
+        bits.set(64, 0, true);
+        bits.copyRow(0, 2);
+        assertTrue(bits.getBit(129, 2));
+        assertTrue(bits.get(new Position(64, 2)));
+        assertFalse(bits.getBit(63, 2));
+        bits.fill(true);
+        final long[] row = new long[bits.getWordsPerRow()];
+        bits.getRow(1, row);
+        assertEquals(3, row.length);
+        assertEquals(3L, row[2]);
+
+        final IntMatrix ints = new IntMatrix(new Size(5, 4));
+        ints.set(4, 3, 1234567);
+        ints.copyRow(3, 0);
+        assertEquals(1234567, ints.getInt(4, 0));
+        assertEquals(Integer.valueOf(1234567), ints.get(new Position(4, 3)));
+
+        final ByteMatrix bytes = new ByteMatrix(new Size(5, 4));
+        bytes.set(new Position(2, 1), (byte) -3);
+        assertEquals(-3, bytes.getByte(2, 1));
+    }
+
+    private static void assertPassagesConnected(final StateMatrix matrix) {
+        final int width = matrix.getSize().width;
+        final int height = matrix.getSize().height;
+        final IntDisjointSets sets = new IntDisjointSets(width * height);
+        int walls = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!matrix.get(x, y).hasState(MazeDefinitionState.PASSAGE)) {
+                    walls++;
+                    continue;
+                }
+                if (x > 0 && matrix.get(x - 1, y).hasState(MazeDefinitionState.PASSAGE)) {
+                    sets.union(y * width + x, y * width + x - 1);
+                }
+                if (y > 0 && matrix.get(x, y - 1).hasState(MazeDefinitionState.PASSAGE)) {
+                    sets.union(y * width + x, (y - 1) * width + x);
+                }
+            }
+        }
+        assertTrue("No passages", walls < width * height);
+        assertEquals("Passages are not connected", walls + 1, sets.getSetCount());
+    }
+
     @Test
     public void testPrimMazeGenerator() {
         final PrimMazeGenerator mazeGenerator = new PrimMazeGenerator(randomGenerator);
@@ -121,12 +338,223 @@ public class MazeGeneratorTester {
         mazeGenerator.generateMaze(grid);
     }
 
+    @Test
+    public void testWeightedPrimMazeGenerator() {
+        final WeightedPrimMazeGenerator mazeGenerator = new WeightedPrimMazeGenerator(randomGenerator,
+                new EdgeWeigher.Noise(randomGenerator, 4));
+        mazeGenerator.generateMaze(grid);
+        assertPerfectMaze(grid);
+    }
+
+    @Test
+    public void testWeightedKruskalMazeGenerator() {
+        final WeightedKruskalMazeGenerator mazeGenerator = new WeightedKruskalMazeGenerator(
+                new EdgeWeigher.DirectionalBias(randomGenerator, 0.5f));
+        mazeGenerator.generateMaze(grid);
+        assertPerfectMaze(grid);
+    }
+
     @Test
     public void testSideWinderMazeGenerator() {
         final SideWinderMazeGenerator mazeGenerator = new SideWinderMazeGenerator(randomGenerator);
         mazeGenerator.generateMaze(new GridRowGenerator(grid));
     }
 
+    @Test
+    public void testWordParallelBinaryTreeMazeGenerator() {
+        final WallPlanes walls = new WallPlanes(new Size(150, 20));
+        new WordParallelBinaryTreeMazeGenerator(randomGenerator).generateMaze(walls);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(walls)));
+    }
+
+    @Test
+    public void testWordParallelSideWinderMazeGenerator() {
+        final WallPlanes walls = new WallPlanes(new Size(150, 20));
+        new WordParallelSideWinderMazeGenerator(randomGenerator).generateMaze(walls);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(walls)));
+    }
+
+    @Test
+    public void testParallelBinaryTreeMazeGeneratorIsIndependentOfThreadCount() {
+        final WallPlanes singleThreaded = new WallPlanes(new Size(100, 1500));
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final WallPlanes multiThreaded = new WallPlanes(new Size(100, 1500));
+        try {
+            new ParallelBinaryTreeMazeGenerator(42, singleThreadPool).generateMaze(singleThreaded);
+            new ParallelBinaryTreeMazeGenerator(42, pool).generateMaze(multiThreaded);
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+        assertEquals(singleThreaded, multiThreaded);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(multiThreaded)));
+    }
+
+    @Test
+    public void testBatchMazeGenerator() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final GridPool gridPool = new GridPool();
+        final Size size = new Size(12, 10);
+        final WallPlanes[] mazes = new WallPlanes[50];
+        new BatchMazeGenerator(executor, gridPool).generate(size, 42, mazes.length,
+                randomizer -> new GrowingTreeMazeGenerator(randomizer)::generateMaze,
+                (index, seed, maze) -> {
+                    assertPerfectMaze(maze.getGrid());
+                    mazes[index] = maze.getWallPlanes().copy();
+                });
+        executor.shutdown();
+        assertTrue(gridPool.getFreeGridCount(size) <= 4);
+
+        final PooledGrid again = gridPool.acquire(size);
+        new GrowingTreeMazeGenerator(new Randomizer.Default(BatchMazeGenerator.seedOf(42, 17))).generateMaze(again.getGrid());
+        assertEquals(mazes[17], again.getWallPlanes());
+    }
+
+    @Test
+    public void testMazeCache() {
+        final BatchMazeGenerator.GeneratorFactory factory = randomizer -> new GrowingTreeMazeGenerator(randomizer)::generateMaze;
+        // 70 wide, so rows don't fit in one word and don't end on a word
+        final Size size = new Size(70, 9);
+        final MazeCache cache = new MazeCache(300);
+        final MazeCache.Key key = new MazeCache.Key("growing tree", "", size, 123);
+
+        final WallPlanes first = cache.get(key, factory);
+        final WallPlanes second = cache.get(key, factory);
+        assertEquals(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        final PooledGrid direct = new PooledGrid(size);
+        new GrowingTreeMazeGenerator(new Randomizer.Default(123)).generateMaze(direct.getGrid());
+        assertEquals(direct.getWallPlanes(), second);
+
+        // One entry takes 1339 bits, which is 168 bytes, so only one fits
+        final MazeCache.Key otherKey = new MazeCache.Key("growing tree", "", size, 124);
+        cache.get(otherKey, factory);
+        assertFalse(cache.contains(key));
+        assertTrue(cache.contains(otherKey));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(168, cache.getUsedBytes());
+
+        // 389 bits, which is 56 bytes, fits in the space that is still free
+        final MazeCache.Key smallKey = new MazeCache.Key("growing tree", "", new Size(20, 9), 125);
+        final WallPlanes small = cache.get(smallKey, factory);
+        assertTrue(cache.contains(otherKey));
+        assertEquals(224, cache.getUsedBytes());
+        assertEquals(small, cache.get(smallKey, factory));
+
+        // Dropping the big entry makes room for another one of its size
+        cache.get(key, factory);
+        assertFalse(cache.contains(otherKey));
+        assertTrue(cache.contains(smallKey));
+        assertEquals(first, cache.get(key, factory));
+        assertEquals(224, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testChunkedMazeWorld() {
+        final ChunkedMazeWorld.ChunkGeneratorFactory factory = randomizer -> new GrowingTreeMazeGenerator(randomizer)::generateMaze;
+        final ChunkedMazeWorld smallCache = new ChunkedMazeWorld(7, 8, 4, factory);
+        final ChunkedMazeWorld bigCache = new ChunkedMazeWorld(7, 8, 100, factory);
+
+        // 4x4 chunks around 0,0
+        final Grid window = bigCache.getWindow(new Position(-16, -16), new Size(32, 32));
+        final boolean[][] reached = new boolean[32][32];
+        final Deque<Position> todo = new ArrayDeque<>();
+        todo.add(new Position(16, 16));
+        reached[16][16] = true;
+        int reachedCount = 1;
+        while (!todo.isEmpty()) {
+            final Position position = todo.remove();
+            for (final Direction direction : Direction.values()) {
+                final Position next = position.move(direction.getMove());
+                if (next.x >= 0 && next.y >= 0 && next.x < 32 && next.y < 32 && !reached[next.x][next.y]
+                        && window.getSquare(position).getWall(direction).isOpen()) {
+                    reached[next.x][next.y] = true;
+                    reachedCount++;
+                    todo.add(next);
+                }
+            }
+        }
+        assertEquals(32 * 32, reachedCount);
+        assertEquals(32 * 32, window.getVertices().size());
+        assertEquals(2 * 32 * 31, window.getEdges().size());
+
+        int openWalls = 0;
+        for (int y = -16; y <= 16; y++) {
+            for (int x = -16; x <= 16; x++) {
+                for (final boolean horizontal : new boolean[]{true, false}) {
+                    final boolean open = bigCache.getWall(x, y, horizontal).isOpen();
+                    assertEquals(open, smallCache.getWall(x, y, horizontal).isOpen());
+                    if (open && (horizontal ? x < 16 && y > -16 && y < 16 : y < 16 && x > -16 && x < 16)) {
+                        openWalls++;
+                    }
+                }
+            }
+        }
+        // A tree in every chunk, and one door in each of the 24 seams between them
+        assertEquals(16 * 63 + 24, openWalls);
+        assertTrue(smallCache.getChunkCount() <= 4);
+        assertTrue(smallCache.getGeneratedChunkCount() > bigCache.getGeneratedChunkCount());
+
+        final Square square = bigCache.getSquare(-1, 5);
+        assertEquals(bigCache.getSquare(-2, 5), square.getWall(LEFT).travel(square));
+        square.setState(MazeDefinitionState.ENTRANCE, true);
+        assertTrue(bigCache.getSquare(-1, 5).hasState(MazeDefinitionState.ENTRANCE));
+        // Found through the world, a square belongs to the window on its chunk
+        assertPerfectMaze(square.getGraph());
+    }
+
+    @Test
+    public void testClosedFormCurveMazeGenerators() {
+        final WallPlanes hilbert = new WallPlanes(new Size(70, 64));
+        new HilbertCurveMazeGenerator(false).generateMaze(hilbert);
+        assertPerfectMaze(new SubGrid(new GridWithDecoupledState(new WallPlanesStateStorage(hilbert)),
+                new Position(0, 0), new Size(64, 64)));
+
+        final WallPlanes moore = new WallPlanes(new Size(64, 64));
+        new MooreCurveMazeGenerator(true).generateMaze(moore);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(moore)));
+
+        final WallPlanes peano = new WallPlanes(new Size(81, 81));
+        new PeanoCurveMazeGenerator(false).generateMaze(peano);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(peano)));
+    }
+
+    @Test
+    public void testClosedFormCurveMazeGeneratorIsIndependentOfThreadCount() {
+        final WallPlanes singleThreaded = new WallPlanes(new Size(1024, 1024));
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final WallPlanes multiThreaded = new WallPlanes(new Size(1024, 1024));
+        try {
+            new HilbertCurveMazeGenerator(false, singleThreadPool).generateMaze(singleThreaded);
+            new HilbertCurveMazeGenerator(false, pool).generateMaze(multiThreaded);
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+        assertEquals(singleThreaded, multiThreaded);
+    }
+
+    @Test
+    public void testParallelSideWinderMazeGeneratorIsIndependentOfThreadCount() {
+        final WallPlanes singleThreaded = new WallPlanes(new Size(100, 1500));
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final WallPlanes multiThreaded = new WallPlanes(new Size(100, 1500));
+        try {
+            new ParallelSideWinderMazeGenerator(42, singleThreadPool).generateMaze(singleThreaded);
+            new ParallelSideWinderMazeGenerator(42, pool).generateMaze(multiThreaded);
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+        assertEquals(singleThreaded, multiThreaded);
+        assertPerfectMaze(new GridWithDecoupledState(new WallPlanesStateStorage(multiThreaded)));
+    }
+
     @Test
     public void testEllerRowGeneratorMazeGenerator() {
         final EllerMazeGenerator mazeGenerator = new EllerMazeGenerator(randomGenerator);
@@ -149,12 +577,137 @@ public class MazeGeneratorTester {
         spaceFillingCurveMazeGenerator.generateMaze(grid);
     }
 
+    @Test
+    public void testCompiledGridLogoProgram() {
+        final GridLogoProgramCompiler compiler = new GridLogoProgramCompiler();
+        final CompiledGridLogoProgram program = compiler.compile(new HilbertCurveProgram(4, false));
+        assertSame(program, compiler.compile(new HilbertCurveProgram(4, false)));
+        assertEquals(1, compiler.getCacheSize());
+        // Without equals, every instance would be a new entry
+        final GridLogoProgram anonymous = new GridLogoProgram() {
+            @Override
+            public void run(final Turtle turtle) {
+                turtle.walk();
+            }
+
+            @Override
+            public Square getStartSquare(final Grid.UtilityWrapper grid) {
+                return grid.getTopLeftSquare();
+            }
+        };
+        assertEquals(1, compiler.compile(anonymous).getLength());
+        assertEquals(1, compiler.getCacheSize());
+
+        final Grid interpreted = new GridWithDecoupledState(new GridMatrixStorage(new StateMatrix(new Size(33, 33))));
+        new GridLogoProgramRunnerMazeGenerator(new HilbertCurveProgram(4, false)).generateMaze(interpreted);
+        final Grid compiled = new GridWithDecoupledState(new GridMatrixStorage(new StateMatrix(new Size(33, 33))));
+        new GridLogoProgramRunnerMazeGenerator(program).generateMaze(compiled);
+        final WallPlanes walls = new WallPlanes(new Size(16, 16));
+        program.draw(walls, 0, 0, RIGHT);
+        final Grid wallPlanesGrid = new GridWithDecoupledState(new WallPlanesStateStorage(walls));
+
+        assertPerfectMaze(compiled);
+        final GraphIndex interpretedIndex = new GraphIndex(interpreted);
+        final GraphIndex compiledIndex = new GraphIndex(compiled);
+        final GraphIndex wallPlanesIndex = new GraphIndex(wallPlanesGrid);
+        for (int edge = 0; edge < interpretedIndex.getEdgeCount(); edge++) {
+            final boolean passage = interpretedIndex.getEdge(edge).hasState(MazeDefinitionState.PASSAGE);
+            assertEquals(passage, compiledIndex.getEdge(edge).hasState(MazeDefinitionState.PASSAGE));
+            assertEquals(passage, wallPlanesIndex.getEdge(edge).hasState(MazeDefinitionState.PASSAGE));
+        }
+    }
+
     @Test
     public void testWallSetup() {
         assertSame(grid.getSquare(new Position(1, 1)).getWall(RIGHT), grid.getSquare(new Position(2, 1))
                 .getWall(LEFT));
     }
 
+    @Test
+    public void testBulkWallOperations() {
+        final Size size = new Size(70, 9);
+        final StateMatrix matrix = new StateMatrix(new Size(141, 19));
+        final Grid matrixGrid = new GridWithDecoupledState(new GridMatrixStorage(matrix));
+        final int[] notifications = new int[1];
+        matrix.addObserver((observable, argument) -> notifications[0]++);
+        final Grid packedGrid = new GridWithDecoupledState(new WallPlanesStateStorage(new WallPlanes(size)));
+        for (final Grid bulkGrid : new Grid[]{matrixGrid, packedGrid}) {
+            bulkGrid.setAllWallsOpened(true);
+            bulkGrid.setHorizontalWallsOpened(3, 2, 66, false);
+            bulkGrid.setVerticalWallsOpened(5, 1, 7, false);
+            bulkGrid.setWallsInsideRectangleOpened(new Position(60, 4), new Size(8, 3), false);
+        }
+        // One notification per line of walls, the rectangle has two rows and seven columns
+        assertEquals(12, notifications[0]);
+        for (int y = 0; y <= size.height; y++) {
+            for (int x = 0; x <= size.width; x++) {
+                if (x < size.width) {
+                    final boolean expected = !(y == 3 && x >= 2 && x <= 66) && !(y > 4 && y < 7 && x >= 60 && x < 68);
+                    assertEquals(expected, matrixGrid.getWall(x, y, true).isOpen());
+                    assertEquals(expected, packedGrid.getWall(x, y, true).isOpen());
+                }
+                if (y < size.height) {
+                    final boolean expected = !(x == 5 && y >= 1 && y <= 7) && !(x > 60 && x < 68 && y >= 4 && y < 7);
+                    assertEquals(expected, matrixGrid.getWall(x, y, false).isOpen());
+                    assertEquals(expected, packedGrid.getWall(x, y, false).isOpen());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWallPlanesStateStorageKeepsOtherWallStates() {
+        final Object marked = new Object();
+        final WallPlanesStateStorage storage = new WallPlanesStateStorage(new WallPlanes(new Size(5, 4)));
+        storage.getWallState(2, 3, false).setState(marked, true);
+        storage.getWallState(2, 3, true).setState(marked, 7);
+        assertTrue(storage.getWallState(2, 3, false).hasState(marked));
+        assertEquals(Integer.valueOf(7), storage.getWallState(new Position(2, 3), true).getState(marked));
+        assertFalse(storage.getWallState(3, 2, false).hasState(marked));
+
+        storage.reset();
+        assertFalse(storage.getWallState(2, 3, false).hasState(marked));
+        assertFalse(storage.getWallState(2, 3, true).hasState(marked));
+    }
+
+    private static void assertPerfectMaze(final Graph graph) {
+        final GraphIndex index = new GraphIndex(graph);
+        final IntDisjointSets sets = new IntDisjointSets(index.getVertexCount());
+        for (int edge = 0; edge < index.getEdgeCount(); edge++) {
+            if (index.getEdge(edge).hasState(MazeDefinitionState.PASSAGE)) {
+                assertTrue("Loop found", sets.union(index.getVertexA(edge), index.getVertexB(edge)));
+            }
+        }
+        assertEquals("Not every square is reachable", 1, sets.getSetCount());
+    }
+
+    @Test
+    public void testGridCursorWalksInReadingOrder() {
+        final GridCursor cursor = new GridCursor(grid);
+        int index = 0;
+        do {
+            assertEquals(index, cursor.getIndex());
+            assertSame(grid.getSquare(new Position(index % 9, index / 9)), cursor.getSquare());
+            index++;
+        } while (cursor.next());
+        assertEquals(81, index);
+
+        cursor.moveTo(4, 4).move(UP).move(LEFT);
+        assertSame(grid.getSquare(3, 3), cursor.getSquare());
+        assertTrue(cursor.moveTo(0, 0).canMove(RIGHT));
+        assertFalse(cursor.canMove(LEFT));
+    }
+
+    @Test
+    public void testCoordinateVisitorsMatchPositions() {
+        grid.forAllSquares((x, y, square) -> {
+            assertSame(grid.getSquare(new Position(x, y)), square);
+            return null;
+        });
+        final Square found = grid.forSquaresInRow(2, 3, 8, (x, y, square) -> x == 5 ? square : null);
+        assertSame(grid.getSquare(5, 2), found);
+    }
+
     @Test
     public void testMatrixStorage() {
         grid.getSquare(new Position(4, 3)).setState(15, true);
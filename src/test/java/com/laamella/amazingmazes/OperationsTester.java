@@ -1,15 +1,32 @@
 package com.laamella.amazingmazes;
 
+import com.laamella.amazingmazes.generators.MazeGenerator;
 import com.laamella.amazingmazes.generators.Randomizer;
 import com.laamella.amazingmazes.generators.daedalus.PrimMazeGenerator;
 import com.laamella.amazingmazes.mazemodel.MazeDefinitionState;
 import com.laamella.amazingmazes.mazemodel.Position;
 import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.graph.Edge;
+import com.laamella.amazingmazes.mazemodel.graph.Graph;
+import com.laamella.amazingmazes.mazemodel.graph.GraphIndex;
+import com.laamella.amazingmazes.mazemodel.graph.Vertex;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
 import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.Square;
 import com.laamella.amazingmazes.mazemodel.grid.implementation.GridMatrixStorage;
 import com.laamella.amazingmazes.mazemodel.grid.implementation.GridWithDecoupledState;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanesStateStorage;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
 import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
+import com.laamella.amazingmazes.operations.BottleneckFinder;
+import com.laamella.amazingmazes.operations.Braider;
 import com.laamella.amazingmazes.operations.DistanceFromDeadEndMarker;
+import com.laamella.amazingmazes.operations.IsolationRemover;
+import com.laamella.amazingmazes.operations.LeafPeelingDistanceFromDeadEndMarker;
+import com.laamella.amazingmazes.operations.LongestPathMarker;
+import com.laamella.amazingmazes.operations.LoopRemover;
+import com.laamella.amazingmazes.operations.MazeStatistics;
 import com.laamella.amazingmazes.operations.MostDistantEntranceAndExitFinder;
 import com.laamella.amazingmazes.operations.MostDistantExitMarker;
 import com.laamella.amazingmazes.operations.VertexDistanceMarker;
@@ -18,7 +35,15 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
 import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class OperationsTester {
     private static Logger log = LoggerFactory.getLogger(OperationsTester.class);
@@ -76,6 +101,222 @@ public class OperationsTester {
         log.debug(stateMatrixPrettyPrinter.getPrintableMaze(mazeStateMatrix));
     }
 
+    @Test
+    public void testLeafPeelingDistanceFromDeadEndMarker() {
+        final LeafPeelingDistanceFromDeadEndMarker.Result result = new LeafPeelingDistanceFromDeadEndMarker(false)
+                .execute(grid);
+        assertTrue(result.success);
+
+        // Dead ends are peeled evenly from all sides, so the highest distance
+        // is in the middle of the longest path, and the dead ends around it
+        // are as far away as that
+        int middle = 0;
+        for (int vertex = 0; vertex < result.index.getVertexCount(); vertex++) {
+            if (result.distances[vertex] > result.distances[middle]) {
+                middle = vertex;
+            }
+        }
+        final int longestPath = new LongestPathMarker().mark(grid);
+        assertEquals((longestPath + 1) / 2, result.distances[middle]);
+        assertEquals(result.distances[middle], Arrays.stream(distancesFrom(result.index, middle)).max().getAsInt());
+    }
+
+    @Test
+    public void testLeafPeelingDistanceFromDeadEndMarkerStopsAtLoops() {
+        // A ring of four squares with a tail of one
+        final GridWithDecoupledState loop = new GridWithDecoupledState(new GridMatrixStorage(new StateMatrix(new Size(7, 5))));
+        loop.getWall(1, 0, false).open();
+        loop.getWall(0, 1, true).open();
+        loop.getWall(1, 1, false).open();
+        loop.getWall(1, 1, true).open();
+        loop.getWall(2, 0, false).open();
+        final LeafPeelingDistanceFromDeadEndMarker.Result result = new LeafPeelingDistanceFromDeadEndMarker().execute(loop);
+        assertFalse(result.success);
+        assertEquals(4, result.unmarkedVertexCount);
+        assertEquals(0, loop.getSquare(2, 0).getState(DistanceFromDeadEndMarker.DISTANCE_FROM_DEAD_END).intValue());
+    }
+
+    @Test
+    public void testIsolationRemoverOnGrid() {
+        // Nothing open, so every square is a section of its own
+        final GridWithDecoupledState closedGrid = new GridWithDecoupledState(
+                new WallPlanesStateStorage(new WallPlanes(new Size(10, 8))));
+        final IsolationRemover isolationRemover = new IsolationRemover(new Randomizer.Default(1));
+        assertEquals(10 * 8 - 1, isolationRemover.removeIsolation(closedGrid));
+        assertEquals(0, isolationRemover.removeIsolation(closedGrid));
+        assertEquals(10 * 8 - 1, new MazeStatistics().analyze(closedGrid).getPassages());
+
+        assertEquals(0, isolationRemover.removeIsolation(grid));
+    }
+
+    @Test
+    public void testIsolationRemoverOnBitMatrix() {
+        // Passages on every other cell, with walls in between
+        final BitMatrix matrix = new BitMatrix(new Size(7, 7));
+        for (int y = 0; y < 7; y += 2) {
+            for (int x = 0; x < 7; x += 2) {
+                matrix.set(x, y, true);
+            }
+        }
+        final IsolationRemover isolationRemover = new IsolationRemover(new Randomizer.Default(1));
+        assertEquals(15, isolationRemover.removeIsolation(matrix));
+        assertEquals(0, isolationRemover.removeIsolation(matrix));
+    }
+
+    @Test
+    public void testLoopRemover() {
+        final WallPlanes[] results = new WallPlanes[2];
+        for (int i = 0; i < results.length; i++) {
+            final WallPlanes walls = new WallPlanes(new Size(12, 9));
+            final GridWithDecoupledState openGrid = new GridWithDecoupledState(new WallPlanesStateStorage(walls));
+            openGrid.setWallsInsideRectangleOpened(new Position(0, 0), openGrid.getSize(), true);
+            final int passages = 11 * 9 + 12 * 8;
+            assertEquals(passages - (12 * 9 - 1), new LoopRemover(new Randomizer.Default(8)).removeLoops(openGrid));
+            final MazeStatistics.Report report = new MazeStatistics().analyze(walls);
+            assertEquals(12 * 9 - 1, report.getPassages());
+            assertEquals(0, report.getIsolatedSquares());
+            assertEquals(0, new IsolationRemover(new Randomizer.Default(1)).removeIsolation(openGrid));
+            results[i] = walls;
+        }
+        assertEquals(results[0], results[1]);
+
+        assertEquals(0, new LoopRemover(new Randomizer.Default(8)).removeLoops(grid));
+    }
+
+    @Test
+    public void testLoopRemoverIsReproducibleOnOtherGraphs() {
+        final WallPlanes[] results = new WallPlanes[3];
+        for (int i = 0; i < results.length; i++) {
+            final WallPlanes walls = new WallPlanes(new Size(12, 9));
+            final GridWithDecoupledState openGrid = new GridWithDecoupledState(new WallPlanesStateStorage(walls));
+            openGrid.setWallsInsideRectangleOpened(new Position(0, 0), openGrid.getSize(), true);
+            final Graph graph;
+            if (i == 0) {
+                graph = openGrid;
+            } else if (i == 1) {
+                graph = new Graph.UtilityWrapper(openGrid);
+            } else {
+                graph = inReadingOrder(openGrid);
+            }
+            new LoopRemover(new Randomizer.Default(8)).removeLoops(graph);
+            results[i] = walls;
+        }
+        assertEquals(results[0], results[1]);
+        assertEquals(results[0], results[2]);
+    }
+
+    /**
+     * @return a graph that is not a grid, with the squares and walls of the
+     * grid in reading order.
+     */
+    private static Graph inReadingOrder(final Grid grid) {
+        final Set<Vertex> vertices = new LinkedHashSet<>();
+        final Set<Edge> edges = new LinkedHashSet<>();
+        for (int y = 0; y < grid.getSize().height; y++) {
+            for (int x = 0; x < grid.getSize().width; x++) {
+                final Square square = grid.getSquare(x, y);
+                vertices.add(square);
+                if (x < grid.getSize().width - 1) {
+                    edges.add(square.getWall(Direction.RIGHT));
+                }
+                if (y < grid.getSize().height - 1) {
+                    edges.add(square.getWall(Direction.DOWN));
+                }
+            }
+        }
+        return new Graph() {
+            @Override
+            public Set<Vertex> getVertices() {
+                return vertices;
+            }
+
+            @Override
+            public Set<Edge> getEdges() {
+                return edges;
+            }
+        };
+    }
+
+    @Test
+    public void testBottleneckFinderOnAPerfectMaze() {
+        final int length = new LongestPathMarker().mark(grid);
+        final BottleneckFinder.Result result = new BottleneckFinder().find(grid);
+        assertTrue(result.solvable);
+        // Every passage and every vertex of the only solution is a bottleneck
+        assertEquals(length, result.bottleneckEdges.length);
+        assertEquals(length - 1, result.bottleneckVertices.length);
+        final int entrance = result.index.getVertexId(new Graph.UtilityWrapper(grid).getEntrance());
+        final int[] distances = distancesFrom(result.index, entrance);
+        for (int i = 0; i < result.bottleneckVertices.length; i++) {
+            assertEquals(i + 1, distances[result.bottleneckVertices[i]]);
+            assertTrue(result.index.getVertex(result.bottleneckVertices[i]).hasState(BottleneckFinder.BOTTLENECK));
+        }
+        assertTrue(result.index.getEdge(result.bottleneckEdges[0]).hasState(BottleneckFinder.BOTTLENECK));
+    }
+
+    @Test
+    public void testBottleneckFinderAroundALoop() {
+        // A corridor from 0,0 to 1,0, a loop around 1,0 2,0 2,1 1,1, and a
+        // corridor from 2,0 to 3,0. 0,1 and 3,1 are cut off.
+        final Grid.UtilityWrapper loop = new Grid.UtilityWrapper(new GridWithDecoupledState(
+                new GridMatrixStorage(new StateMatrix(new Size(9, 5)))));
+        loop.getWall(1, 0, false).open();
+        loop.getWall(2, 0, false).open();
+        loop.getWall(2, 1, false).open();
+        loop.getWall(1, 1, true).open();
+        loop.getWall(2, 1, true).open();
+        loop.getWall(3, 0, false).open();
+        loop.getSquare(new Position(0, 0)).setState(ENTRANCE, true);
+        loop.getSquare(new Position(3, 0)).setState(EXIT, true);
+
+        final BottleneckFinder.Result result = new BottleneckFinder().find(loop);
+        assertTrue(result.solvable);
+        assertEquals(2, result.bottleneckEdges.length);
+        assertEquals(2, result.bottleneckVertices.length);
+        assertEquals(result.index.getVertexId(loop.getSquare(new Position(1, 0))), result.bottleneckVertices[0]);
+        assertEquals(result.index.getVertexId(loop.getSquare(new Position(2, 0))), result.bottleneckVertices[1]);
+        assertTrue(loop.getWall(1, 0, false).hasState(BottleneckFinder.BOTTLENECK));
+        assertTrue(loop.getWall(3, 0, false).hasState(BottleneckFinder.BOTTLENECK));
+        assertFalse(loop.getWall(2, 0, false).hasState(BottleneckFinder.BOTTLENECK));
+        assertFalse(loop.getSquare(new Position(1, 1)).hasState(BottleneckFinder.BOTTLENECK));
+
+        loop.getWall(3, 0, false).close();
+        final BottleneckFinder.Result unsolvable = new BottleneckFinder().find(loop);
+        assertFalse(unsolvable.solvable);
+        assertFalse(loop.getWall(1, 0, false).hasState(BottleneckFinder.BOTTLENECK));
+    }
+
+    @Test
+    public void testBottleneckFinderOnALongCorridor() {
+        final int length = 200000;
+        final Grid.UtilityWrapper corridor = new Grid.UtilityWrapper(new GridWithDecoupledState(
+                new WallPlanesStateStorage(new WallPlanes(new Size(length, 1)))));
+        corridor.setWallsInsideRectangleOpened(new Position(0, 0), corridor.getSize(), true);
+        corridor.getSquare(new Position(0, 0)).setState(ENTRANCE, true);
+        corridor.getSquare(new Position(length - 1, 0)).setState(EXIT, true);
+
+        final BottleneckFinder.Result result = new BottleneckFinder().find(corridor);
+        assertEquals(length - 1, result.bottleneckEdges.length);
+        assertEquals(length - 2, result.bottleneckVertices.length);
+    }
+
+    @Test
+    public void testBraider() {
+        final MazeStatistics statistics = new MazeStatistics();
+        final MazeStatistics.Report perfect = statistics.analyze(grid);
+        final int openedWalls = new Braider(new Randomizer.Default(3), 0.25).braid(grid);
+        final MazeStatistics.Report braided = statistics.analyze(grid);
+        assertEquals(perfect.getPassages() + openedWalls, braided.getPassages());
+        final long deadEndsLeft = Math.round(perfect.getDeadEnds() * 0.25);
+        // Opening a wall between two dead ends may remove one too many
+        assertTrue(braided.getDeadEnds() <= deadEndsLeft);
+        assertTrue(braided.getDeadEnds() >= deadEndsLeft - 1);
+
+        new Braider(new Randomizer.Default(3), 0).braid(grid);
+        assertEquals(0, statistics.analyze(grid).getDeadEnds());
+        assertEquals(0, new Braider(new Randomizer.Default(3), 0).braid(grid));
+    }
+
     @Test
     public void testMostDistantEntranceAndExitFinder() {
         grid.clearState(ENTRANCE);
@@ -84,4 +325,97 @@ public class OperationsTester {
         new MostDistantEntranceAndExitFinder().execute(grid);
     }
 
+    @Test
+    public void testMazeStatistics() {
+        final MazeStatistics.Report report = new MazeStatistics().analyze(grid);
+        log.debug(report.toString());
+        final long squares = grid.getSize().area;
+        assertEquals(squares - 1, report.getPassages());
+        assertEquals(squares, report.getDeadEnds() + report.getStraights() + report.getTurns()
+                + report.getThreeWayJunctions() + report.getFourWayJunctions() + report.getIsolatedSquares());
+        // Every passage is counted from both squares
+        assertEquals(2 * report.getPassages(), report.getDeadEnds() + 2 * (report.getStraights() + report.getTurns())
+                + 3 * report.getThreeWayJunctions() + 4 * report.getFourWayJunctions());
+
+        // One row per band, so corridors cross the bands everywhere
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final MazeStatistics.Report inBands = new MazeStatistics(pool, 1).analyze(grid);
+            assertEquals(report.toString(), inBands.toString());
+            for (int length = 0; length <= report.getLongestCorridor(); length++) {
+                assertEquals(report.getCorridorCount(length), inBands.getCorridorCount(length));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMazeStatisticsOfAnL() {
+        // A dead end, two straights, a turn, a straight and a dead end
+        final WallPlanes walls = new WallPlanes(new Size(4, 3));
+        walls.setVerticalWallOpen(1, 0, true);
+        walls.setVerticalWallOpen(2, 0, true);
+        walls.setVerticalWallOpen(3, 0, true);
+        walls.setHorizontalWallOpen(3, 1, true);
+        walls.setHorizontalWallOpen(3, 2, true);
+        final MazeStatistics.Report report = new MazeStatistics().analyze(walls);
+        assertEquals(5, report.getPassages());
+        assertEquals(2, report.getDeadEnds());
+        assertEquals(3, report.getStraights());
+        assertEquals(1, report.getTurns());
+        assertEquals(6, report.getIsolatedSquares());
+        assertEquals(1, report.getCorridorCount());
+        assertEquals(1, report.getCorridorCount(4));
+        assertEquals(4, report.getLongestCorridor());
+        assertEquals(0.75, report.getStraightness(), 0.0001);
+    }
+
+    @Test
+    public void testLongestPathMarker() {
+        final GraphIndex index = new GraphIndex(grid);
+        int longest = 0;
+        int longestBetweenPossibleExits = 0;
+        for (int start = 0; start < index.getVertexCount(); start++) {
+            final int[] distances = distancesFrom(index, start);
+            for (int end = 0; end < index.getVertexCount(); end++) {
+                longest = Math.max(longest, distances[end]);
+                if (index.getVertex(start).hasState(MazeGenerator.POSSIBLE_EXIT)
+                        && index.getVertex(end).hasState(MazeGenerator.POSSIBLE_EXIT)) {
+                    longestBetweenPossibleExits = Math.max(longestBetweenPossibleExits, distances[end]);
+                }
+            }
+        }
+
+        assertEquals(longest, new LongestPathMarker().mark(grid));
+        assertEquals(longestBetweenPossibleExits, new LongestPathMarker(true).mark(grid));
+        final Graph.UtilityWrapper graph = new Graph.UtilityWrapper(grid);
+        assertTrue(graph.getEntrance().hasState(MazeGenerator.POSSIBLE_EXIT));
+        assertTrue(graph.getExit().hasState(MazeGenerator.POSSIBLE_EXIT));
+        final int entrance = index.getVertexId(graph.getEntrance());
+        final int exit = index.getVertexId(graph.getExit());
+        assertEquals(longestBetweenPossibleExits, distancesFrom(index, entrance)[exit]);
+    }
+
+    private static int[] distancesFrom(final GraphIndex index, final int start) {
+        final int[] distances = new int[index.getVertexCount()];
+        Arrays.fill(distances, -1);
+        final int[] queue = new int[index.getVertexCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        distances[start] = 0;
+        while (head < tail) {
+            final int vertex = queue[head++];
+            for (int i = index.getAdjacencyStart(vertex); i < index.getAdjacencyEnd(vertex); i++) {
+                final int edge = index.getAdjacentEdge(i);
+                final int neighbour = index.travel(edge, vertex);
+                if (index.getEdge(edge).hasState(PASSAGE) && distances[neighbour] < 0) {
+                    distances[neighbour] = distances[vertex] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return distances;
+    }
 }
@@ -0,0 +1,138 @@
+package com.laamella.amazingmazes;
+
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.batch.PooledGrid;
+import com.laamella.amazingmazes.generators.daedalus.GrowingTreeMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.BitMatrix;
+import com.laamella.amazingmazes.rendering.MazeRenderer;
+import com.laamella.amazingmazes.rendering.SvgMazeExporter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RenderingTester {
+    /**
+     * A 2x2 maze shaped like a U lying on its side, with an entrance at the top
+     * left.
+     */
+    private static WallPlanes createSmallMaze() {
+        final WallPlanes walls = new WallPlanes(new Size(2, 2));
+        walls.setHorizontalWallOpen(0, 0, true);
+        walls.setVerticalWallOpen(1, 0, true);
+        walls.setHorizontalWallOpen(0, 1, true);
+        walls.setVerticalWallOpen(1, 1, true);
+        return walls;
+    }
+
+    @Test
+    public void testAscii() throws IOException {
+        final StringWriter out = new StringWriter();
+        new MazeRenderer(MazeRenderer.Style.ASCII).render(createSmallMaze(), out);
+        assertEquals("|  ---+\n" +
+                "|     |\n" +
+                "|  ---+\n" +
+                "|     |\n" +
+                "+-----+\n", out.toString());
+    }
+
+    @Test
+    public void testPbm() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MazeRenderer(MazeRenderer.Style.PBM).render(createSmallMaze(), out);
+        final byte[] header = "P4\n5 5\n".getBytes(StandardCharsets.US_ASCII);
+        final byte[] expected = new byte[header.length + 5];
+        System.arraycopy(header, 0, expected, 0, header.length);
+        expected[header.length] = (byte) 0xb8;
+        expected[header.length + 1] = (byte) 0x88;
+        expected[header.length + 2] = (byte) 0xb8;
+        expected[header.length + 3] = (byte) 0x88;
+        expected[header.length + 4] = (byte) 0xf8;
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void testSinksGiveTheSameOutput() throws IOException {
+        // Wider than a word, so rows are drawn from more than one word
+        final PooledGrid maze = new PooledGrid(new Size(70, 5));
+        new GrowingTreeMazeGenerator(new Randomizer.Default(3)).generateMaze(maze.getGrid());
+        final MazeRenderer renderer = new MazeRenderer(MazeRenderer.Style.UNICODE);
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        renderer.render(maze.getWallPlanes(), stream);
+        final StringWriter writer = new StringWriter();
+        renderer.render(maze.getWallPlanes(), writer);
+        final ByteBuffer buffer = ByteBuffer.allocate(stream.size());
+        renderer.render(maze.getWallPlanes(), buffer);
+
+        assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), writer.toString());
+        assertArrayEquals(stream.toByteArray(), buffer.array());
+        final String[] lines = writer.toString().split("\n");
+        assertEquals(11, lines.length);
+        assertEquals(70 * 3 + 1, lines[0].length());
+    }
+
+    @Test
+    public void testBitMatrix() throws IOException {
+        final BitMatrix passages = new BitMatrix(new Size(3, 2));
+        passages.set(1, 0, true);
+        passages.set(1, 1, true);
+        passages.set(2, 1, true);
+
+        final StringWriter text = new StringWriter();
+        new MazeRenderer(MazeRenderer.Style.ASCII).render(passages, text);
+        assertEquals("# #\n#  \n", text.toString());
+
+        final ByteArrayOutputStream image = new ByteArrayOutputStream();
+        new MazeRenderer(MazeRenderer.Style.PBM).render(passages, image);
+        final byte[] bytes = image.toByteArray();
+        assertEquals("P4\n3 2\n", new String(bytes, 0, 7, StandardCharsets.US_ASCII));
+        assertEquals((byte) 0xa0, bytes[7]);
+        assertEquals((byte) 0x80, bytes[8]);
+    }
+
+    @Test
+    public void testSvgMergesWalls() throws IOException {
+        final StringWriter out = new StringWriter();
+        // Two lines across, two down, and the bottom line that goes all the way
+        assertEquals(5, new SvgMazeExporter().export(createSmallMaze(), out));
+        final String svg = out.toString();
+        assertTrue(svg.startsWith("<svg "));
+        assertTrue(svg.contains("M0 20h20"));
+        assertTrue(svg.contains("M0 0v20"));
+        assertTrue(svg.endsWith("</svg>\n"));
+    }
+
+    @Test
+    public void testSvgFromGridAndFromWallPlanesAreTheSame() throws IOException {
+        final PooledGrid maze = new PooledGrid(new Size(70, 9));
+        new GrowingTreeMazeGenerator(new Randomizer.Default(5)).generateMaze(maze.getGrid());
+        final StringWriter fromWallPlanes = new StringWriter();
+        final StringWriter fromGrid = new StringWriter();
+        final SvgMazeExporter exporter = new SvgMazeExporter(4, 1);
+        final int lineCount = exporter.export(maze.getWallPlanes(), fromWallPlanes);
+        assertEquals(lineCount, exporter.export(maze.getGrid(), fromGrid));
+        assertEquals(fromWallPlanes.toString(), fromGrid.toString());
+        int closedWalls = 0;
+        for (int y = 0; y <= 9; y++) {
+            for (int x = 0; x <= 70; x++) {
+                if (x < 70 && !maze.getWallPlanes().isHorizontalWallOpen(x, y)) {
+                    closedWalls++;
+                }
+                if (y < 9 && !maze.getWallPlanes().isVerticalWallOpen(x, y)) {
+                    closedWalls++;
+                }
+            }
+        }
+        assertTrue(lineCount < closedWalls / 2);
+    }
+}
@@ -1,5 +1,82 @@
 package com.laamella.amazingmazes;
 
+import com.laamella.amazingmazes.generators.Randomizer;
+import com.laamella.amazingmazes.generators.daedalus.PrimMazeGenerator;
+import com.laamella.amazingmazes.mazemodel.Position;
+import com.laamella.amazingmazes.mazemodel.Size;
+import com.laamella.amazingmazes.mazemodel.grid.Direction;
+import com.laamella.amazingmazes.mazemodel.grid.Grid;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.GridMatrixStorage;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.GridWithDecoupledState;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanes;
+import com.laamella.amazingmazes.mazemodel.grid.implementation.WallPlanesStateStorage;
+import com.laamella.amazingmazes.mazemodel.matrix.implementation.StateMatrix;
+import com.laamella.amazingmazes.solvers.Solver;
+import com.laamella.amazingmazes.solvers.WallFollowerSolver;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.ENTRANCE;
+import static com.laamella.amazingmazes.mazemodel.MazeDefinitionState.EXIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class SolversTester {
+    private Grid.UtilityWrapper grid;
+
+    @Before
+    public void before() {
+        grid = new Grid.UtilityWrapper(new GridWithDecoupledState(
+                new GridMatrixStorage(new StateMatrix(new Size(41, 31)))));
+        grid.getTopLeftSquare().setState(ENTRANCE, true);
+        new PrimMazeGenerator(new Randomizer.Default(5)).generateMaze(grid);
+        grid.getSquare(new Position(19, 14)).setState(EXIT, true);
+    }
+
+    @Test
+    public void testWallFollowerSolver() {
+        for (final boolean rightHand : new boolean[]{true, false}) {
+            final WallFollowerSolver solver = new WallFollowerSolver(rightHand);
+            assertTrue(solver.solve(grid));
+            int x = 0;
+            int y = 0;
+            for (int step = 0; step < solver.getPathLength(); step++) {
+                final Direction direction = solver.getStep(step);
+                assertTrue(grid.getSquare(x, y).getWall(direction).isOpen());
+                x += direction.getMove().x;
+                y += direction.getMove().y;
+            }
+            assertEquals(19, x);
+            assertEquals(14, y);
+
+            final int pathLength = solver.getPathLength();
+            assertTrue(solver.solve(grid, 0, 0, 19, 14));
+            assertEquals(pathLength, solver.getPathLength());
+        }
+
+        final WallFollowerSolver solver = new WallFollowerSolver();
+        solver.solve(grid);
+        solver.markPath(grid);
+        assertTrue(grid.getTopLeftSquare().hasState(Solver.SOLUTION));
+        assertTrue(grid.getSquare(new Position(19, 14)).hasState(Solver.SOLUTION));
+    }
+
+    @Test
+    public void testWallFollowerSolverGivesUpWhenGoingInCircles() {
+        final Grid.UtilityWrapper open = new Grid.UtilityWrapper(new GridWithDecoupledState(
+                new WallPlanesStateStorage(new WallPlanes(new Size(4, 4)))));
+        open.setWallsInsideRectangleOpened(new Position(0, 0), open.getSize(), true);
+        open.getWall(1, 1, true).close();
+        open.getWall(1, 2, true).close();
+        open.getWall(1, 1, false).close();
+        open.getWall(2, 1, false).close();
 
+        final WallFollowerSolver solver = new WallFollowerSolver();
+        assertFalse(solver.solve(open, 0, 0, 1, 1));
+        assertEquals(4 * 16, solver.getPathLength());
+        // Starting next to the closed square, the walk only goes around it
+        assertFalse(solver.solve(open, 0, 0, 3, 3));
+        assertTrue(solver.solve(open, 3, 0, 3, 3));
+    }
 }